@@ -34,6 +34,9 @@ public class ConfigManager {
         
         @SerializedName("starship")
         private StarshipConfig starship;
+        
+        @SerializedName("snapshot")
+        private SnapshotConfig snapshot;
 
         /**
          * Obtiene la configuración de la base de datos.
@@ -88,6 +91,24 @@ public class ConfigManager {
         public void setStarship(StarshipConfig starship) {
             this.starship = starship;
         }
+        
+        /**
+         * Obtiene la configuración de snapshot.
+         * 
+         * @return Configuración de snapshot
+         */
+        public SnapshotConfig getSnapshot() {
+            return snapshot;
+        }
+        
+        /**
+         * Establece la configuración de snapshot.
+         * 
+         * @param snapshot Configuración de snapshot
+         */
+        public void setSnapshot(SnapshotConfig snapshot) {
+            this.snapshot = snapshot;
+        }
     }
 
     /**
@@ -168,6 +189,32 @@ public class ConfigManager {
         }
     }
 
+    /**
+     * Clase interna que representa la configuración del snapshot de arranque.
+     */
+    public static class SnapshotConfig {
+        @SerializedName("pathsnapshot")
+        private String pathsnapshot;
+
+        /**
+         * Obtiene la ruta del archivo snapshot.
+         * 
+         * @return Ruta del archivo snapshot
+         */
+        public String getPath() {
+            return pathsnapshot;
+        }
+
+        /**
+         * Establece la ruta del archivo snapshot.
+         * 
+         * @param path Ruta del archivo snapshot
+         */
+        public void setPath(String path) {
+            this.pathsnapshot = path;
+        }
+    }
+
     /**
      * Constructor privado para patrón Singleton.
      * 
@@ -249,4 +296,13 @@ public class ConfigManager {
     public String getStarshipPath() {
         return config.getStarship().getPath();
     }
+    
+    /**
+     * Obtiene la ruta del archivo snapshot desde la configuración.
+     * 
+     * @return Ruta del archivo snapshot
+     */
+    public String getSnapshotPath() {
+        return config.getSnapshot().getPath();
+    }
 }
@@ -12,17 +12,37 @@ public class Cosmos {
     /**
      * Método principal de la aplicación.
      * Inicializa la base de datos, crea las tablas necesarias automáticamente,
-     * inserta datos de ejemplo y consulta los registros.
+     * restaura el mundo desde el snapshot, importa sus tripulantes si faltan en la
+     * base de datos, inserta datos de ejemplo y consulta los registros.
      * 
-     * @param args Argumentos de línea de comandos (no utilizados)
+     * <p>Opciones de arranque:</p>
+     * <ul>
+     *   <li>{@code --train}: recorre solo el camino de arranque, sin insertar datos de
+     *       ejemplo, para generar la lista de clases y el archivo AppCDS (perfil Maven
+     *       {@code appcds}).</li>
+     *   <li>{@code --db <ruta>}: usa otra base de datos en lugar de la de {@code config.json}.</li>
+     * </ul>
+     * 
+     * @param args Argumentos de línea de comandos
      */
     public static void main(String[] args) {
+        long inicio = System.nanoTime();
+        boolean entrenamiento = false;
+        String dbPathArg = null;
+        for (int i = 0; i < args.length; i++) {
+            if ("--train".equals(args[i])) {
+                entrenamiento = true;
+            } else if ("--db".equals(args[i]) && i + 1 < args.length) {
+                dbPathArg = args[++i];
+            }
+        }
+        
         System.out.println("Hello cruel world!");
         
         try {
             // Cargar configuración desde config.json
             ConfigManager configManager = ConfigManager.getInstance();
-            String dbPath = configManager.getDatabasePath();
+            String dbPath = dbPathArg != null ? dbPathArg : configManager.getDatabasePath();
             
             // Crear gestor de base de datos con la ruta del config
             DatabaseManager dbManager = new DatabaseManager(dbPath);
@@ -30,15 +50,34 @@ public class Cosmos {
             // Conectar a la base de datos
             dbManager.connect();
             
-            // Inicializar base de datos (crear tablas si no existen)
+            // Inicializar base de datos (crear tablas si el esquema no está al día)
             dbManager.initializeDatabase();
             
-            // Insertar tripulantes
-            dbManager.insertTripulante("James T. Kirk", "Capitán");
-            dbManager.insertTripulante("Spock", "Comandante");
-            dbManager.insertTripulante("Leonard McCoy", "Doctor");
-            dbManager.insertTripulante("Montgomery Scott", "Ingeniero Jefe");
-            dbManager.insertPlayer("Tony Stark");
+            // Restaurar el mundo desde el snapshot (o desde los XML si ha cambiado)
+            WorldSnapshot mundo = WorldSnapshot.restoreOrBuild(configManager.getSnapshotPath(),
+                    configManager.getCrewPath(), configManager.getStarshipPath());
+            System.out.println("Mundo cargado: " + mundo.getNumeroTripulantes() + " tripulantes y "
+                    + mundo.getNumeroNaves() + " naves.");
+            
+            // Importar los tripulantes si los XML han cambiado o faltan en la base de datos
+            if (!mundo.isRestaurada() || dbManager.countTripulantesImportados() < mundo.getNumeroTripulantes()) {
+                System.out.println("Tripulantes importados: " + mundo.importarTripulantes(dbManager));
+            }
+            
+            System.out.printf("Arranque completado en %.1f ms%n", (System.nanoTime() - inicio) / 1e6);
+            
+            if (!entrenamiento) {
+                // Insertar tripulantes y jugador en una única transacción
+                String federacion = StarshipGenerator.FACCION_FEDERACION;
+                dbManager.inTransaction(tx -> {
+                    dbManager.insertTripulante("James T. Kirk", "Capitán", 34, federacion, "NCC-1701");
+                    dbManager.insertTripulante("Spock", "Comandante", 35, federacion, "NCC-1701");
+                    dbManager.insertTripulante("Leonard McCoy", "Doctor", 42, federacion, "NCC-1701");
+                    dbManager.insertTripulante("Montgomery Scott", "Ingeniero Jefe", 46, federacion, "NCC-1701");
+                    dbManager.insertPlayer("Tony Stark");
+                    return null;
+                });
+            }
             
             // Consultar y mostrar los tripulantes
             dbManager.queryTripulantes();
@@ -18,9 +18,9 @@ import java.util.UUID;
 public class CrewGenerator {
 
     // Bancos de datos para aleatoriedad
-    private static final String[] NOMBRES = {"James", "Jean-Luc", "Nyota", "Spock", "Hikaru", "Geordi", "Deanna", "William", "Kathryn", "Seven", "Pavel", "Montgomery", "Leonard", "Beverly"};
-    private static final String[] APELLIDOS = {"Kirk", "Picard", "Uhura", "Sulu", "La Forge", "Troi", "Riker", "Janeway", "of Nine", "Chekov", "Scott", "McCoy", "Crusher", "Worf"};
-    private static final String[] RANGOS = {"Almirante","Capitán", "Comandante", "Teniente Comandante", "Teniente", "Alférez", "Suboficial", "Cadete"};
+    static final String[] NOMBRES = {"James", "Jean-Luc", "Nyota", "Spock", "Hikaru", "Geordi", "Deanna", "William", "Kathryn", "Seven", "Pavel", "Montgomery", "Leonard", "Beverly"};
+    static final String[] APELLIDOS = {"Kirk", "Picard", "Uhura", "Sulu", "La Forge", "Troi", "Riker", "Janeway", "of Nine", "Chekov", "Scott", "McCoy", "Crusher", "Worf"};
+    static final String[] RANGOS = {"Almirante","Capitán", "Comandante", "Teniente Comandante", "Teniente", "Alférez", "Suboficial", "Cadete"};
 
     public static void main(String[] args) {
         try {
@@ -39,6 +39,9 @@ public class CrewGenerator {
 
             Random random = new Random();
 
+            // Control de unicidad de los IDs generados
+            UniqueIdGuard guard = new UniqueIdGuard(1000);
+
             // 3. Bucle para generar 1000 tripulantes
             for (int i = 0; i < 1000; i++) {
                 
@@ -47,8 +50,11 @@ public class CrewGenerator {
                 
                 // --- Generar Datos Aleatorios ---
                 
-                // ID Único (Usamos UUID para garantizar que sea único)
-                String idValor = UUID.randomUUID().toString().substring(0, 8).toUpperCase(); 
+                // ID Único (8 caracteres de un UUID; se regenera si colisiona con uno anterior)
+                String idValor;
+                do {
+                    idValor = UUID.randomUUID().toString().substring(0, 8).toUpperCase();
+                } while (!guard.tryAdd(idValor));
                 
                 // Nombre (Nombre + Apellido aleatorio)
                 String nombreValor = NOMBRES[random.nextInt(NOMBRES.length)] + " " + APELLIDOS[random.nextInt(APELLIDOS.length)];
@@ -83,6 +89,7 @@ public class CrewGenerator {
             transformer.transform(source, result);
 
             System.out.println("¡Archivo " + crewPath + " generado con éxito con 1000 registros!");
+            guard.mostrarEstadisticas("tripulantes");
 
         } catch (Exception e) {
             e.printStackTrace();
@@ -0,0 +1,275 @@
+package es.cosmos;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Consultas de resumen sobre los tripulantes para el panel de Cosmos.
+ *
+ * <p>Lee de las tablas de agregados que mantienen los triggers de
+ * {@link DatabaseManager#createAgregadosTables()}, así que el coste de cada
+ * consulta depende del número de graduaciones y facciones, no del número de
+ * tripulantes. Los resultados por graduación se ordenan por jerarquía, del
+ * rango más alto al más bajo según {@link CrewGenerator#RANGOS}; las graduaciones
+ * que no están en esa lista van al final, por orden alfabético.</p>
+ *
+ * @author Cosmos Team
+ * @version 1.0
+ * @since 2025
+ */
+public class CrewLeaderboard {
+    /**
+     * Ámbito de un agregado.
+     */
+    public enum Ambito {
+        /** Todos los tripulantes */
+        GLOBAL("global"),
+        /** Tripulantes de una facción */
+        FACCION("faccion"),
+        /** Tripulantes de una nave */
+        NAVE("nave");
+
+        private final String valor;
+
+        Ambito(String valor) {
+            this.valor = valor;
+        }
+    }
+
+    /**
+     * Resumen de una graduación dentro de un ámbito.
+     */
+    public static class Resumen {
+        private final String clave;
+        private final String graduacion;
+        private final long total;
+        private final double edadMedia;
+
+        Resumen(String clave, String graduacion, long total, long sumaEdad, long conEdad) {
+            this.clave = clave;
+            this.graduacion = graduacion;
+            this.total = total;
+            this.edadMedia = conEdad == 0 ? Double.NaN : (double) sumaEdad / conEdad;
+        }
+
+        /**
+         * Obtiene la clave del ámbito (facción o nave; vacía en el ámbito global).
+         *
+         * @return Clave del ámbito
+         */
+        public String getClave() {
+            return clave;
+        }
+
+        /**
+         * Obtiene la graduación.
+         *
+         * @return Graduación
+         */
+        public String getGraduacion() {
+            return graduacion;
+        }
+
+        /**
+         * Obtiene el número de tripulantes.
+         *
+         * @return Número de tripulantes
+         */
+        public long getTotal() {
+            return total;
+        }
+
+        /**
+         * Obtiene la edad media de los tripulantes con edad conocida.
+         *
+         * @return Edad media, o NaN si ninguno tiene edad
+         */
+        public double getEdadMedia() {
+            return edadMedia;
+        }
+    }
+
+    /** Orden jerárquico de las graduaciones conocidas */
+    private static final List<String> JERARQUIA = Arrays.asList(CrewGenerator.RANGOS);
+
+    /** Ordena por jerarquía y, a igualdad, por nombre de graduación */
+    private static final Comparator<String> POR_JERARQUIA = Comparator
+            .comparingInt((String g) -> JERARQUIA.contains(g) ? JERARQUIA.indexOf(g) : JERARQUIA.size())
+            .thenComparing(Comparator.naturalOrder());
+
+    private static final String SQL_RESUMEN = "SELECT clave, graduacion, total, suma_edad, con_edad "
+            + "FROM tripulantes_agg WHERE ambito = ? AND clave = ?";
+
+    private static final String SQL_RESUMEN_GRADUACION = "SELECT clave, graduacion, total, suma_edad, con_edad "
+            + "FROM tripulantes_agg WHERE ambito = ? AND clave = ? AND graduacion = ?";
+
+    private static final String SQL_RANKING = "SELECT clave, graduacion, total, suma_edad, con_edad "
+            + "FROM tripulantes_agg WHERE ambito = ? AND graduacion = ? ORDER BY total DESC, clave";
+
+    private static final String SQL_HISTOGRAMA = "SELECT tramo, total FROM tripulantes_edad "
+            + "WHERE ambito = ? AND clave = ? AND graduacion = ?";
+
+    private final DatabaseManager dbManager;
+
+    /**
+     * Constructor del panel de resumen.
+     *
+     * @param dbManager Gestor de base de datos inicializado
+     */
+    public CrewLeaderboard(DatabaseManager dbManager) {
+        this.dbManager = dbManager;
+    }
+
+    /**
+     * Obtiene el resumen de cada graduación en un ámbito, ordenado por jerarquía.
+     *
+     * @param ambito Ámbito del resumen
+     * @param clave Facción o nave (ignorada en el ámbito global)
+     * @return Resumen por graduación
+     * @throws SQLException Si ocurre un error al consultar los agregados
+     */
+    public List<Resumen> resumenPorGraduacion(Ambito ambito, String clave) throws SQLException {
+        List<Resumen> resumen = dbManager.inTransaction(DatabaseManager.TransactionMode.READ_ONLY, connection -> {
+            try (PreparedStatement pstmt = connection.prepareStatement(SQL_RESUMEN)) {
+                pstmt.setString(1, ambito.valor);
+                pstmt.setString(2, claveDe(ambito, clave));
+                return leerResumen(pstmt);
+            }
+        });
+        resumen.sort(Comparator.comparing(Resumen::getGraduacion, POR_JERARQUIA));
+        return resumen;
+    }
+
+    /**
+     * Obtiene el resumen de una graduación en un ámbito.
+     *
+     * @param ambito Ámbito del resumen
+     * @param clave Facción o nave (ignorada en el ámbito global)
+     * @param graduacion Graduación
+     * @return Resumen de la graduación (con total 0 si no hay tripulantes)
+     * @throws SQLException Si ocurre un error al consultar los agregados
+     */
+    public Resumen resumen(Ambito ambito, String clave, String graduacion) throws SQLException {
+        List<Resumen> resumen = dbManager.inTransaction(DatabaseManager.TransactionMode.READ_ONLY, connection -> {
+            try (PreparedStatement pstmt = connection.prepareStatement(SQL_RESUMEN_GRADUACION)) {
+                pstmt.setString(1, ambito.valor);
+                pstmt.setString(2, claveDe(ambito, clave));
+                pstmt.setString(3, graduacion);
+                return leerResumen(pstmt);
+            }
+        });
+        return resumen.isEmpty() ? new Resumen(claveDe(ambito, clave), graduacion, 0, 0, 0) : resumen.get(0);
+    }
+
+    /**
+     * Clasifica las facciones o naves por número de tripulantes de una graduación.
+     * Responde a preguntas como "qué facción tiene más Capitanes".
+     *
+     * @param ambito Ámbito a clasificar (facción o nave)
+     * @param graduacion Graduación
+     * @return Resumen de cada facción o nave, de mayor a menor número de tripulantes
+     * @throws SQLException Si ocurre un error al consultar los agregados
+     */
+    public List<Resumen> ranking(Ambito ambito, String graduacion) throws SQLException {
+        return dbManager.inTransaction(DatabaseManager.TransactionMode.READ_ONLY, connection -> {
+            try (PreparedStatement pstmt = connection.prepareStatement(SQL_RANKING)) {
+                pstmt.setString(1, ambito.valor);
+                pstmt.setString(2, graduacion);
+                return leerResumen(pstmt);
+            }
+        });
+    }
+
+    /**
+     * Obtiene el histograma de edades de una graduación en un ámbito.
+     *
+     * @param ambito Ámbito del histograma
+     * @param clave Facción o nave (ignorada en el ámbito global)
+     * @param graduacion Graduación
+     * @return Número de tripulantes por tramo de edad (inicio del tramo), en orden creciente
+     * @throws SQLException Si ocurre un error al consultar los agregados
+     */
+    public Map<Integer, Long> histogramaEdad(Ambito ambito, String clave, String graduacion) throws SQLException {
+        return dbManager.inTransaction(DatabaseManager.TransactionMode.READ_ONLY, connection -> {
+            try (PreparedStatement pstmt = connection.prepareStatement(SQL_HISTOGRAMA)) {
+                pstmt.setString(1, ambito.valor);
+                pstmt.setString(2, claveDe(ambito, clave));
+                pstmt.setString(3, graduacion);
+                Map<Integer, Long> histograma = new TreeMap<>();
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        histograma.put(rs.getInt("tramo"), rs.getLong("total"));
+                    }
+                }
+                return histograma;
+            }
+        });
+    }
+
+    /**
+     * Lee las filas de resumen de una consulta sobre 'tripulantes_agg'.
+     *
+     * @param pstmt Consulta preparada
+     * @return Filas de resumen
+     * @throws SQLException Si ocurre un error al leer las filas
+     */
+    private static List<Resumen> leerResumen(PreparedStatement pstmt) throws SQLException {
+        List<Resumen> resumen = new ArrayList<>();
+        try (ResultSet rs = pstmt.executeQuery()) {
+            while (rs.next()) {
+                resumen.add(new Resumen(rs.getString("clave"), rs.getString("graduacion"),
+                        rs.getLong("total"), rs.getLong("suma_edad"), rs.getLong("con_edad")));
+            }
+        }
+        return resumen;
+    }
+
+    /**
+     * Obtiene la clave con la que se guarda un ámbito en los agregados.
+     *
+     * @param ambito Ámbito
+     * @param clave Facción o nave
+     * @return Clave del agregado (vacía en el ámbito global)
+     */
+    private static String claveDe(Ambito ambito, String clave) {
+        return ambito == Ambito.GLOBAL ? "" : clave;
+    }
+
+    /**
+     * Método principal que muestra el resumen global de tripulantes por graduación
+     * y el ranking de facciones para cada graduación.
+     *
+     * @param args Argumentos de línea de comandos (no utilizados)
+     */
+    public static void main(String[] args) {
+        try {
+            ConfigManager configManager = ConfigManager.getInstance();
+            DatabaseManager dbManager = new DatabaseManager(configManager.getDatabasePath());
+            dbManager.connect();
+            dbManager.initializeDatabase();
+
+            CrewLeaderboard leaderboard = new CrewLeaderboard(dbManager);
+            System.out.println("\nTripulantes por graduación:");
+            for (Resumen r : leaderboard.resumenPorGraduacion(Ambito.GLOBAL, null)) {
+                System.out.printf("  %-20s %8d  edad media: %s%n", r.getGraduacion(), r.getTotal(),
+                        Double.isNaN(r.getEdadMedia()) ? "-" : String.format("%.1f", r.getEdadMedia()));
+                for (Resumen f : leaderboard.ranking(Ambito.FACCION, r.getGraduacion())) {
+                    System.out.printf("      %-30s %8d%n", f.getClave(), f.getTotal());
+                }
+            }
+
+            dbManager.disconnect();
+
+        } catch (Exception e) {
+            System.err.println("Error al consultar los agregados: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+}
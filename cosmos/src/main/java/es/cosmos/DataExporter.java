@@ -0,0 +1,357 @@
+package es.cosmos;
+
+import com.google.gson.stream.JsonWriter;
+import org.sqlite.SQLiteConfig;
+
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Exportador de tablas de la base de datos SQLite a XML y JSON.
+ *
+ * <p>Las filas se leen con un {@link ResultSet} de solo avance y se escriben en
+ * streaming (StAX para XML y {@link JsonWriter} de Gson para JSON) sobre un
+ * escritor con buffer, de modo que la memoria usada no depende del tamaño de la
+ * tabla. La salida puede dividirse en varios archivos por rangos de id, que se
+ * exportan en paralelo con una conexión de solo lectura cada uno.</p>
+ *
+ * <p>Las conexiones se abren directamente en modo solo lectura, sin pasar por
+ * {@link DatabaseManager}, para no modificar la base de datos exportada (ni su
+ * esquema ni su modo de diario).</p>
+ *
+ * <p>El XML de tripulantes sigue el mismo esquema que genera {@link CrewGenerator}.
+ * Las columnas NULL no se escriben: en XML se omite su elemento y en JSON el valor
+ * es null.</p>
+ *
+ * @author Cosmos Team
+ * @version 1.0
+ * @since 2025
+ */
+public class DataExporter {
+    /** Filas que el driver trae de cada vez */
+    private static final int FETCH_SIZE = 1000;
+
+    /** Tamaño del buffer de escritura */
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    /** Sangría de cada nivel del XML, igual que la de los generadores */
+    private static final String SANGRIA = "    ";
+
+    /** Espera máxima ante un bloqueo de otra conexión antes de fallar */
+    private static final int BUSY_TIMEOUT_MS = 5000;
+
+    /**
+     * Formatos de salida soportados.
+     */
+    public enum Formato {
+        XML, JSON
+    }
+
+    /**
+     * Tablas exportables, con los elementos XML que las representan.
+     */
+    public enum Tabla {
+        TRIPULANTES("tripulantes", "crew", "crewmember", "id", "nombre", "graduacion", "edad"),
+        PLAYER("player", "players", "player", "id", "nombre");
+
+        private final String nombre;
+        private final String raiz;
+        private final String elemento;
+        private final String[] columnas;
+
+        Tabla(String nombre, String raiz, String elemento, String... columnas) {
+            this.nombre = nombre;
+            this.raiz = raiz;
+            this.elemento = elemento;
+            this.columnas = columnas;
+        }
+    }
+
+    /** Ruta al archivo de base de datos */
+    private final String dbPath;
+
+    /**
+     * Constructor del exportador.
+     *
+     * @param dbPath Ruta al archivo de base de datos SQLite
+     */
+    public DataExporter(String dbPath) {
+        this.dbPath = dbPath;
+    }
+
+    /**
+     * Exporta una tabla completa, opcionalmente dividida en varios archivos.
+     * Con más de una parte, cada archivo cubre un rango de id y se escribe en
+     * paralelo; cada parte es coherente en sí misma, pero las partes no comparten
+     * una misma instantánea de la base de datos.
+     *
+     * @param tabla Tabla a exportar
+     * @param formato Formato de salida
+     * @param directorio Directorio de salida
+     * @param partes Número de archivos en que dividir la salida
+     * @return Número de filas exportadas
+     * @throws Exception Si ocurre un error al leer la base de datos o escribir los archivos
+     */
+    public long exportar(Tabla tabla, Formato formato, Path directorio, int partes) throws Exception {
+        Files.createDirectories(directorio);
+        String extension = formato.name().toLowerCase(Locale.ROOT);
+
+        if (partes <= 1) {
+            return exportarRango(tabla, formato, directorio.resolve(tabla.nombre + "." + extension),
+                    Long.MIN_VALUE, Long.MAX_VALUE);
+        }
+
+        long[] limites = calcularLimites(tabla, partes);
+        ExecutorService executor = Executors.newFixedThreadPool(
+                Math.min(partes, Runtime.getRuntime().availableProcessors()));
+        try {
+            List<Future<Long>> resultados = new ArrayList<>();
+            for (int p = 0; p < partes; p++) {
+                Path archivo = directorio.resolve(String.format("%s-%03d.%s", tabla.nombre, p, extension));
+                long desde = limites[p];
+                long hasta = limites[p + 1];
+                resultados.add(executor.submit(() -> exportarRango(tabla, formato, archivo, desde, hasta)));
+            }
+
+            long total = 0;
+            for (Future<Long> resultado : resultados) {
+                try {
+                    total += resultado.get();
+                } catch (ExecutionException e) {
+                    throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+                }
+            }
+            return total;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Divide el rango de ids de la tabla en partes de igual amplitud.
+     *
+     * @param tabla Tabla a dividir
+     * @param partes Número de partes
+     * @return Límites de las partes: la parte p cubre [limites[p], limites[p + 1])
+     * @throws SQLException Si ocurre un error al consultar la tabla
+     */
+    private long[] calcularLimites(Tabla tabla, int partes) throws SQLException {
+        long min;
+        long max;
+        try (Connection connection = abrirLectura();
+             Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COALESCE(MIN(id), 0), COALESCE(MAX(id), 0) FROM " + tabla.nombre)) {
+            rs.next();
+            min = rs.getLong(1);
+            max = rs.getLong(2);
+        }
+
+        long[] limites = new long[partes + 1];
+        long amplitud = Math.max(1, (max - min + partes) / partes);
+        for (int p = 0; p < partes; p++) {
+            limites[p] = min + p * amplitud;
+        }
+        limites[0] = Long.MIN_VALUE;
+        limites[partes] = Long.MAX_VALUE;
+        return limites;
+    }
+
+    /**
+     * Exporta las filas de un rango de ids a un archivo, con su propia conexión
+     * y en una transacción de solo lectura.
+     *
+     * @param tabla Tabla a exportar
+     * @param formato Formato de salida
+     * @param archivo Archivo de salida
+     * @param desde Primer id (incluido)
+     * @param hasta Último id (excluido)
+     * @return Número de filas exportadas
+     * @throws Exception Si ocurre un error al leer la base de datos o escribir el archivo
+     */
+    private long exportarRango(Tabla tabla, Formato formato, Path archivo, long desde, long hasta) throws Exception {
+        String sql = "SELECT " + String.join(", ", tabla.columnas) + " FROM " + tabla.nombre
+                + " WHERE id >= ? AND id < ? ORDER BY id";
+
+        try (Connection connection = abrirLectura();
+             Statement stmt = connection.createStatement()) {
+            // Una sola transacción de lectura: todas las filas de la parte salen de la misma instantánea
+            stmt.execute("BEGIN DEFERRED");
+            try (Writer writer = new BufferedWriter(
+                    new OutputStreamWriter(Files.newOutputStream(archivo), StandardCharsets.UTF_8), BUFFER_SIZE);
+                 PreparedStatement pstmt = prepararConsulta(connection, sql, desde, hasta);
+                 ResultSet rs = pstmt.executeQuery()) {
+                long filas = formato == Formato.XML ? escribirXml(tabla, rs, writer) : escribirJson(tabla, rs, writer);
+                System.out.println("Exportadas " + filas + " filas de '" + tabla.nombre + "' a " + archivo);
+                return filas;
+            } finally {
+                stmt.execute("COMMIT");
+            }
+        }
+    }
+
+    /**
+     * Abre una conexión de solo lectura a la base de datos.
+     *
+     * @return Conexión abierta en modo solo lectura
+     * @throws SQLException Si ocurre un error al conectar con la base de datos
+     */
+    private Connection abrirLectura() throws SQLException {
+        SQLiteConfig config = new SQLiteConfig();
+        config.setReadOnly(true);
+        config.setBusyTimeout(BUSY_TIMEOUT_MS);
+        return config.createConnection("jdbc:sqlite:" + dbPath);
+    }
+
+    /**
+     * Prepara la consulta de un rango con un cursor de solo avance y el tamaño de lote ajustado.
+     *
+     * @param connection Conexión a la base de datos
+     * @param sql Consulta con los límites del rango como parámetros
+     * @param desde Primer id (incluido)
+     * @param hasta Último id (excluido)
+     * @return Consulta preparada
+     * @throws SQLException Si ocurre un error al preparar la consulta
+     */
+    private static PreparedStatement prepararConsulta(Connection connection, String sql, long desde, long hasta)
+            throws SQLException {
+        PreparedStatement pstmt = connection.prepareStatement(sql,
+                ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+        pstmt.setFetchSize(FETCH_SIZE);
+        pstmt.setLong(1, desde);
+        pstmt.setLong(2, hasta);
+        return pstmt;
+    }
+
+    /**
+     * Escribe las filas como XML con la misma estructura y sangría que los generadores.
+     * Las columnas NULL se omiten para no confundirlas con una cadena vacía.
+     *
+     * @param tabla Tabla exportada
+     * @param rs Filas a escribir
+     * @param writer Destino
+     * @return Número de filas escritas
+     * @throws SQLException Si ocurre un error al leer las filas
+     * @throws XMLStreamException Si ocurre un error al escribir el XML
+     */
+    private static long escribirXml(Tabla tabla, ResultSet rs, Writer writer) throws SQLException, XMLStreamException {
+        XMLStreamWriter xml = XMLOutputFactory.newInstance().createXMLStreamWriter(writer);
+        xml.writeStartDocument("UTF-8", "1.0");
+        xml.writeCharacters("\n");
+        xml.writeStartElement(tabla.raiz);
+
+        long filas = 0;
+        while (rs.next()) {
+            xml.writeCharacters("\n" + SANGRIA);
+            xml.writeStartElement(tabla.elemento);
+            for (String columna : tabla.columnas) {
+                String valor = rs.getString(columna);
+                if (valor == null) {
+                    continue;
+                }
+                xml.writeCharacters("\n" + SANGRIA + SANGRIA);
+                xml.writeStartElement(columna);
+                xml.writeCharacters(valor);
+                xml.writeEndElement();
+            }
+            xml.writeCharacters("\n" + SANGRIA);
+            xml.writeEndElement();
+            filas++;
+        }
+
+        xml.writeCharacters("\n");
+        xml.writeEndElement();
+        xml.writeCharacters("\n");
+        xml.writeEndDocument();
+        xml.flush();
+        return filas;
+    }
+
+    /**
+     * Escribe las filas como un array JSON de objetos.
+     *
+     * @param tabla Tabla exportada
+     * @param rs Filas a escribir
+     * @param writer Destino
+     * @return Número de filas escritas
+     * @throws SQLException Si ocurre un error al leer las filas
+     * @throws IOException Si ocurre un error al escribir el JSON
+     */
+    private static long escribirJson(Tabla tabla, ResultSet rs, Writer writer) throws SQLException, IOException {
+        JsonWriter json = new JsonWriter(writer);
+        json.beginArray();
+
+        long filas = 0;
+        while (rs.next()) {
+            json.beginObject();
+            for (String columna : tabla.columnas) {
+                Object valor = rs.getObject(columna);
+                if (valor instanceof Number numero) {
+                    json.name(columna).value(numero);
+                } else {
+                    json.name(columna).value(valor == null ? null : valor.toString());
+                }
+            }
+            json.endObject();
+            filas++;
+        }
+
+        json.endArray();
+        json.flush();
+        return filas;
+    }
+
+    /**
+     * Método principal que exporta una tabla de la base de datos configurada.
+     *
+     * <p>Argumentos: tabla (tripulantes o player), formato (xml o json) y, opcionalmente,
+     * número de archivos (1 por defecto) y directorio de salida ("export" por defecto).</p>
+     *
+     * @param args Argumentos de línea de comandos
+     */
+    public static void main(String[] args) {
+        if (args.length < 2) {
+            System.err.println("Uso: DataExporter <tripulantes|player> <xml|json> [partes] [directorio]");
+            return;
+        }
+
+        try {
+            Tabla tabla = Tabla.valueOf(args[0].toUpperCase(Locale.ROOT));
+            Formato formato = Formato.valueOf(args[1].toUpperCase(Locale.ROOT));
+            int partes = args.length > 2 ? Integer.parseInt(args[2]) : 1;
+            Path directorio = Paths.get(args.length > 3 ? args[3] : "export");
+
+            ConfigManager configManager = ConfigManager.getInstance();
+            DataExporter exporter = new DataExporter(configManager.getDatabasePath());
+
+            long inicio = System.nanoTime();
+            long filas = exporter.exportar(tabla, formato, directorio, partes);
+            System.out.printf("Exportación completada: %d filas en %.1f s%n", filas,
+                    (System.nanoTime() - inicio) / 1e9);
+
+        } catch (Exception e) {
+            System.err.println("Error en la exportación: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+}
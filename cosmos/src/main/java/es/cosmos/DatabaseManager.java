@@ -1,22 +1,127 @@
 package es.cosmos;
 
 import java.sql.*;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * Gestor de base de datos SQLite para la aplicación Cosmos.
  * Proporciona métodos para conectar, desconectar, crear tablas y gestionar datos.
  * 
+ * <p>Es seguro usarlo desde varios hilos: el acceso a la conexión se serializa con
+ * un cerrojo reentrante. Las operaciones de varias sentencias se agrupan con
+ * {@link #inTransaction(TransactionMode, TransactionCallback)}.</p>
+ * 
+ * <p>La base de datos se abre en modo WAL, en el que los lectores no bloquean al
+ * escritor ni al revés. Las transacciones de solo lectura usan su propio conjunto
+ * de conexiones, fuera del cerrojo, y se ejecutan a la vez que las escrituras;
+ * cada una ve la base de datos tal como estaba al empezar. Si el modo WAL no está
+ * disponible (p. ej. en una base de datos en memoria) todas las transacciones
+ * comparten la conexión principal y se serializan.</p>
+ * 
+ * <p>Los métodos auxiliares (p. ej. {@link #findTripulante(int)} o
+ * {@link #insertPlayer(String)}) llamados dentro de una transacción de solo lectura
+ * usan la conexión de lectura de esa transacción; los que escriben lanzan una
+ * {@link SQLException} en lugar de salirse de ella.</p>
+ * 
  * @author Cosmos Team
  * @version 1.0
  * @since 2025
  */
 public class DatabaseManager {
+    /** Versión del esquema; incrementarla al modificar las tablas */
+    public static final int SCHEMA_VERSION = 3;
+
+    /** Código de resultado primario de SQLite para base de datos ocupada */
+    private static final int SQLITE_BUSY = 5;
+
+    /** Código de resultado primario de SQLite para tabla bloqueada */
+    private static final int SQLITE_LOCKED = 6;
+
+    /** Número máximo de intentos de una transacción ante SQLITE_BUSY */
+    private static final int MAX_INTENTOS = 6;
+
+    /** Espera inicial entre reintentos en milisegundos; se duplica en cada intento */
+    private static final long ESPERA_INICIAL_MS = 5;
+
+    /** Amplitud en años de cada tramo del histograma de edades */
+    public static final int TRAMO_EDAD = 10;
+
+    /** Espera máxima de SQLite ante un bloqueo antes de devolver SQLITE_BUSY */
+    private static final int BUSY_TIMEOUT_MS = 1000;
+
+    /** Número máximo de transacciones de solo lectura simultáneas (y de conexiones de lectura) */
+    private static final int MAX_LECTORES = Math.max(2, Runtime.getRuntime().availableProcessors());
+
+    /**
+     * Modo de una transacción.
+     * Las de solo lectura usan BEGIN DEFERRED en una conexión de lectura y no toman
+     * el bloqueo de escritura; las de lectura y escritura usan BEGIN IMMEDIATE en la
+     * conexión principal para tomarlo desde el inicio y evitar interbloqueos al pasar
+     * de lectura a escritura.
+     */
+    public enum TransactionMode {
+        /** Solo lectura (BEGIN DEFERRED, PRAGMA query_only) */
+        READ_ONLY("BEGIN DEFERRED"),
+        /** Lectura y escritura (BEGIN IMMEDIATE) */
+        READ_WRITE("BEGIN IMMEDIATE");
+
+        private final String begin;
+
+        TransactionMode(String begin) {
+            this.begin = begin;
+        }
+    }
+
+    /**
+     * Operación que se ejecuta dentro de una transacción.
+     * 
+     * @param <T> Tipo del resultado de la operación
+     */
+    @FunctionalInterface
+    public interface TransactionCallback<T> {
+        /**
+         * Ejecuta la operación.
+         * Puede ejecutarse más de una vez si la transacción se reintenta.
+         * 
+         * @param connection Conexión con la transacción activa
+         * @return Resultado de la operación
+         * @throws SQLException Si ocurre un error; la transacción se deshace
+         */
+        T execute(Connection connection) throws SQLException;
+    }
+
     /** Conexión activa a la base de datos SQLite */
     private Connection connection;
     
     /** Ruta al archivo de base de datos */
     private final String dbPath;
 
+    /** Cerrojo que serializa el acceso a la conexión */
+    private final ReentrantLock lock = new ReentrantLock();
+
+    /** Nivel de anidamiento de transacciones (0 sin transacción); protegido por el cerrojo */
+    private int nivelTransaccion;
+
+    /** Indica si las transacciones de solo lectura usan conexiones propias (modo WAL) */
+    private volatile boolean lecturasConcurrentes;
+
+    /** Conexiones de lectura abiertas y libres */
+    private final BlockingQueue<Connection> lectoresLibres = new LinkedBlockingQueue<>();
+
+    /** Limita las transacciones de solo lectura simultáneas a {@link #MAX_LECTORES} */
+    private final Semaphore permisosLectura = new Semaphore(MAX_LECTORES);
+
+    /** Conexión de lectura de la transacción de solo lectura activa en cada hilo */
+    private final ThreadLocal<Connection> lectorActivo = new ThreadLocal<>();
+
+    /** Indica si las operaciones de escritura se muestran por consola */
+    private volatile boolean verbose = true;
+
     /**
      * Constructor del gestor de base de datos.
      * 
@@ -27,39 +132,447 @@ public class DatabaseManager {
     }
 
     /**
-     * Establece la conexión con la base de datos SQLite.
+     * Activa o desactiva los mensajes por consola de las operaciones de escritura.
+     * Conviene desactivarlos al lanzar muchas operaciones, p. ej. en pruebas de carga.
+     * 
+     * @param verbose true para mostrar los mensajes
+     */
+    public void setVerbose(boolean verbose) {
+        this.verbose = verbose;
+    }
+
+    /**
+     * Establece la conexión con la base de datos SQLite y activa el modo WAL.
      * Si el archivo no existe, SQLite lo creará automáticamente.
+     * Las conexiones de lectura se abren más adelante, según se necesiten.
      * 
      * @throws SQLException Si ocurre un error al conectar con la base de datos
      */
     public void connect() throws SQLException {
-        String url = "jdbc:sqlite:" + dbPath;
-        connection = DriverManager.getConnection(url);
-        System.out.println("Conexión a SQLite establecida.");
+        lock.lock();
+        try {
+            connection = abrirConexion(false);
+            try (Statement stmt = connection.createStatement();
+                 ResultSet rs = stmt.executeQuery("PRAGMA journal_mode = WAL")) {
+                lecturasConcurrentes = rs.next() && "wal".equalsIgnoreCase(rs.getString(1));
+            }
+            System.out.println("Conexión a SQLite establecida.");
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Abre una conexión nueva a la base de datos.
+     * 
+     * @param soloLectura true para una conexión de lectura (PRAGMA query_only)
+     * @return Conexión abierta
+     * @throws SQLException Si ocurre un error al conectar con la base de datos
+     */
+    private Connection abrirConexion(boolean soloLectura) throws SQLException {
+        Connection conn = DriverManager.getConnection("jdbc:sqlite:" + dbPath);
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("PRAGMA busy_timeout = " + BUSY_TIMEOUT_MS);
+            if (soloLectura) {
+                stmt.execute("PRAGMA query_only = ON");
+            }
+        } catch (SQLException e) {
+            conn.close();
+            throw e;
+        }
+        return conn;
     }
 
     /**
      * Inicializa la base de datos creando todas las tablas necesarias.
+     * Si la versión de esquema guardada coincide con {@link #SCHEMA_VERSION}
+     * no se ejecuta ninguna sentencia DDL.
      * Este método debe ser llamado después de establecer la conexión.
      * 
      * @throws SQLException Si ocurre un error al crear las tablas
      */
     public void initializeDatabase() throws SQLException {
-        createTripulantesTable();
-        createPlayerTable();
+        if (getSchemaVersion() == SCHEMA_VERSION) {
+            System.out.println("Esquema de base de datos en versión " + SCHEMA_VERSION + ", se omite la creación de tablas.");
+            return;
+        }
+        inTransaction(TransactionMode.READ_WRITE, conn -> {
+            createTripulantesTable();
+            createPlayerTable();
+            createNavesTable();
+            // Versión 2: edad, facción y nave de cada tripulante, y tablas de agregados
+            addColumnIfMissing("tripulantes", "edad", "INTEGER");
+            addColumnIfMissing("tripulantes", "faccion", "TEXT");
+            addColumnIfMissing("tripulantes", "nave", "TEXT");
+            // Versión 3: código de origen de los tripulantes importados
+            addColumnIfMissing("tripulantes", "codigo", "TEXT");
+            try (Statement stmt = conn.createStatement()) {
+                stmt.execute("CREATE UNIQUE INDEX IF NOT EXISTS tripulantes_codigo ON tripulantes (codigo)");
+            }
+            createAgregadosTables();
+            rebuildAgregados();
+            setSchemaVersion(SCHEMA_VERSION);
+            return null;
+        });
         System.out.println("Base de datos inicializada con todas las tablas.");
     }
 
     /**
-     * Cierra la conexión con la base de datos SQLite.
-     * Verifica si la conexión está activa antes de cerrarla.
+     * Ejecuta una operación de lectura y escritura dentro de una transacción.
+     * 
+     * @param <T> Tipo del resultado de la operación
+     * @param callback Operación a ejecutar
+     * @return Resultado de la operación
+     * @throws SQLException Si la operación falla o se agotan los reintentos
+     * @see #inTransaction(TransactionMode, TransactionCallback)
+     */
+    public <T> T inTransaction(TransactionCallback<T> callback) throws SQLException {
+        return inTransaction(TransactionMode.READ_WRITE, callback);
+    }
+
+    /**
+     * Ejecuta una operación dentro de una transacción, confirmándola una sola vez al terminar.
+     * 
+     * <p>Si ya hay una transacción activa en el mismo hilo, la operación se anida con un
+     * SAVEPOINT: un error deshace solo la operación anidada y se propaga a la externa.
+     * Las transacciones anidadas usan el modo de la transacción externa; dentro de una
+     * de solo lectura no se puede abrir una de lectura y escritura.</p>
+     * 
+     * <p>Las transacciones de solo lectura no anidadas se ejecutan en una conexión de
+     * lectura sin tomar el cerrojo, a la vez que las escrituras de otros hilos.</p>
+     * 
+     * <p>Si la transacción externa falla con SQLITE_BUSY se deshace y se reintenta con
+     * espera exponencial y aleatoria, liberando el cerrojo mientras espera.</p>
+     * 
+     * @param <T> Tipo del resultado de la operación
+     * @param mode Modo de la transacción
+     * @param callback Operación a ejecutar
+     * @return Resultado de la operación
+     * @throws SQLException Si la operación falla o se agotan los reintentos
+     */
+    public <T> T inTransaction(TransactionMode mode, TransactionCallback<T> callback) throws SQLException {
+        Connection lector = lectorActivo.get();
+        if (lector != null) {
+            if (mode != TransactionMode.READ_ONLY) {
+                throw new SQLException("No se puede escribir dentro de una transacción de solo lectura");
+            }
+            return callback.execute(lector);
+        }
+
+        boolean lectura = mode == TransactionMode.READ_ONLY && lecturasConcurrentes
+                && !lock.isHeldByCurrentThread();
+        if (!lectura) {
+            lock.lock();
+            try {
+                if (nivelTransaccion > 0) {
+                    return ejecutarSavepoint(callback);
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        long espera = ESPERA_INICIAL_MS;
+        for (int intento = 1; ; intento++) {
+            try {
+                if (lectura) {
+                    return ejecutarLectura(callback);
+                }
+                lock.lock();
+                try {
+                    return ejecutarTransaccion(mode, callback);
+                } finally {
+                    lock.unlock();
+                }
+            } catch (SQLException e) {
+                if (!esOcupada(e) || intento >= MAX_INTENTOS) {
+                    throw e;
+                }
+            }
+
+            try {
+                TimeUnit.MILLISECONDS.sleep(espera + ThreadLocalRandom.current().nextLong(espera + 1));
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+                throw new SQLException("Transacción interrumpida durante la espera de reintento", ie);
+            }
+            espera *= 2;
+        }
+    }
+
+    /**
+     * Ejecuta un intento de transacción externa en la conexión principal.
+     * Debe llamarse con el cerrojo tomado.
+     * 
+     * @param <T> Tipo del resultado de la operación
+     * @param mode Modo de la transacción
+     * @param callback Operación a ejecutar
+     * @return Resultado de la operación
+     * @throws SQLException Si la operación falla; la transacción queda deshecha
+     */
+    private <T> T ejecutarTransaccion(TransactionMode mode, TransactionCallback<T> callback) throws SQLException {
+        try (Statement stmt = connection.createStatement()) {
+            if (mode == TransactionMode.READ_ONLY) {
+                stmt.execute("PRAGMA query_only = ON");
+            }
+            try {
+                stmt.execute(mode.begin);
+                nivelTransaccion = 1;
+                try {
+                    T resultado = callback.execute(connection);
+                    stmt.execute("COMMIT");
+                    return resultado;
+                } catch (Throwable e) {
+                    try {
+                        stmt.execute("ROLLBACK");
+                    } catch (SQLException re) {
+                        e.addSuppressed(re);
+                    }
+                    throw e;
+                } finally {
+                    nivelTransaccion = 0;
+                }
+            } finally {
+                if (mode == TransactionMode.READ_ONLY) {
+                    stmt.execute("PRAGMA query_only = OFF");
+                }
+            }
+        }
+    }
+
+    /**
+     * Ejecuta un intento de transacción de solo lectura en una conexión de lectura,
+     * sin tomar el cerrojo.
+     * 
+     * @param <T> Tipo del resultado de la operación
+     * @param callback Operación a ejecutar
+     * @return Resultado de la operación
+     * @throws SQLException Si la operación falla
+     */
+    private <T> T ejecutarLectura(TransactionCallback<T> callback) throws SQLException {
+        Connection lector = tomarLector();
+        boolean reutilizable = false;
+        try (Statement stmt = lector.createStatement()) {
+            stmt.execute(TransactionMode.READ_ONLY.begin);
+            lectorActivo.set(lector);
+            try {
+                T resultado = callback.execute(lector);
+                stmt.execute("COMMIT");
+                reutilizable = true;
+                return resultado;
+            } catch (Throwable e) {
+                try {
+                    stmt.execute("ROLLBACK");
+                    reutilizable = true;
+                } catch (SQLException re) {
+                    e.addSuppressed(re);
+                }
+                throw e;
+            } finally {
+                lectorActivo.remove();
+            }
+        } finally {
+            devolverLector(lector, reutilizable);
+        }
+    }
+
+    /**
+     * Toma una conexión de lectura libre o abre una nueva, esperando si ya hay
+     * {@link #MAX_LECTORES} transacciones de solo lectura en curso.
+     * 
+     * @return Conexión de lectura
+     * @throws SQLException Si no se puede abrir la conexión o se interrumpe la espera
+     */
+    private Connection tomarLector() throws SQLException {
+        try {
+            permisosLectura.acquire();
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Transacción interrumpida esperando una conexión de lectura", ie);
+        }
+        Connection lector = lectoresLibres.poll();
+        if (lector != null) {
+            return lector;
+        }
+        try {
+            return abrirConexion(true);
+        } catch (SQLException | RuntimeException e) {
+            permisosLectura.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Devuelve una conexión de lectura al conjunto de conexiones libres, o la cierra
+     * si ha quedado en mal estado o el gestor ya está desconectado.
+     * 
+     * @param lector Conexión de lectura
+     * @param reutilizable false si la conexión puede tener una transacción a medias
+     */
+    private void devolverLector(Connection lector, boolean reutilizable) {
+        try {
+            if (reutilizable && lecturasConcurrentes) {
+                lectoresLibres.offer(lector);
+                if (!lecturasConcurrentes) {
+                    cerrarLectores();
+                }
+            } else {
+                cerrarEnSilencio(lector);
+            }
+        } finally {
+            permisosLectura.release();
+        }
+    }
+
+    /**
+     * Cierra las conexiones de lectura libres.
+     */
+    private void cerrarLectores() {
+        Connection lector;
+        while ((lector = lectoresLibres.poll()) != null) {
+            cerrarEnSilencio(lector);
+        }
+    }
+
+    /**
+     * Cierra una conexión de lectura ignorando los errores, que no afectan a ningún dato.
+     * 
+     * @param lector Conexión de lectura
+     */
+    private static void cerrarEnSilencio(Connection lector) {
+        try {
+            lector.close();
+        } catch (SQLException e) {
+            System.err.println("Error al cerrar una conexión de lectura: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Ejecuta una operación anidada dentro de un SAVEPOINT. Debe llamarse con el cerrojo tomado.
+     * 
+     * @param <T> Tipo del resultado de la operación
+     * @param callback Operación a ejecutar
+     * @return Resultado de la operación
+     * @throws SQLException Si la operación falla; se deshacen solo sus cambios
+     */
+    private <T> T ejecutarSavepoint(TransactionCallback<T> callback) throws SQLException {
+        String savepoint = "sp_" + nivelTransaccion;
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute("SAVEPOINT " + savepoint);
+            nivelTransaccion++;
+            try {
+                T resultado = callback.execute(connection);
+                stmt.execute("RELEASE " + savepoint);
+                return resultado;
+            } catch (Throwable e) {
+                try {
+                    stmt.execute("ROLLBACK TO " + savepoint);
+                    stmt.execute("RELEASE " + savepoint);
+                } catch (SQLException re) {
+                    e.addSuppressed(re);
+                }
+                throw e;
+            } finally {
+                nivelTransaccion--;
+            }
+        }
+    }
+
+    /**
+     * Obtiene la conexión sobre la que el hilo actual debe ejecutar una operación.
+     * Dentro de una transacción de solo lectura es la conexión de lectura de esa
+     * transacción, sin tomar el cerrojo; en otro caso es la conexión principal, con
+     * el cerrojo tomado. Debe liberarse con {@link #liberarConexion(Connection)}.
+     * 
+     * @param escritura true si la operación modifica la base de datos
+     * @return Conexión para la operación
+     * @throws SQLException Si la operación escribe dentro de una transacción de solo lectura
+     */
+    private Connection tomarConexion(boolean escritura) throws SQLException {
+        Connection lector = lectorActivo.get();
+        if (lector != null) {
+            if (escritura) {
+                throw new SQLException("No se puede escribir dentro de una transacción de solo lectura");
+            }
+            return lector;
+        }
+        lock.lock();
+        return connection;
+    }
+
+    /**
+     * Libera una conexión obtenida con {@link #tomarConexion(boolean)}.
+     * 
+     * @param conn Conexión obtenida
+     */
+    private void liberarConexion(Connection conn) {
+        if (conn == null || conn != lectorActivo.get()) {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Indica si un error se debe a que la base de datos está ocupada o bloqueada
+     * por otra conexión, en cuyo caso la transacción puede reintentarse.
+     * 
+     * @param e Error a comprobar
+     * @return true si el error es SQLITE_BUSY o SQLITE_LOCKED
+     */
+    private static boolean esOcupada(SQLException e) {
+        // Los códigos extendidos (p. ej. SQLITE_BUSY_SNAPSHOT) conservan el primario en el byte bajo
+        int codigo = e.getErrorCode() & 0xFF;
+        return codigo == SQLITE_BUSY || codigo == SQLITE_LOCKED;
+    }
+
+    /**
+     * Obtiene la versión de esquema guardada en la base de datos (PRAGMA user_version).
+     * Una base de datos nueva o anterior al versionado devuelve 0.
+     * 
+     * @return Versión del esquema
+     * @throws SQLException Si ocurre un error al consultar la versión
+     */
+    public int getSchemaVersion() throws SQLException {
+        Connection conn = tomarConexion(false);
+        try {
+            try (Statement stmt = conn.createStatement();
+                 ResultSet rs = stmt.executeQuery("PRAGMA user_version")) {
+                return rs.next() ? rs.getInt(1) : 0;
+            }
+        } finally {
+            liberarConexion(conn);
+        }
+    }
+
+    /**
+     * Guarda la versión de esquema en la base de datos (PRAGMA user_version).
+     * 
+     * @param version Versión del esquema
+     * @throws SQLException Si ocurre un error al guardar la versión
+     */
+    private void setSchemaVersion(int version) throws SQLException {
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute("PRAGMA user_version = " + version);
+        }
+    }
+
+    /**
+     * Cierra la conexión con la base de datos SQLite y las conexiones de lectura libres.
+     * Verifica si la conexión está activa antes de cerrarla; las conexiones de lectura
+     * aún en uso se cierran al terminar su transacción.
      * 
      * @throws SQLException Si ocurre un error al cerrar la conexión
      */
     public void disconnect() throws SQLException {
-        if (connection != null && !connection.isClosed()) {
-            connection.close();
-            System.out.println("Conexión a SQLite cerrada.");
+        lock.lock();
+        try {
+            lecturasConcurrentes = false;
+            cerrarLectores();
+            if (connection != null && !connection.isClosed()) {
+                connection.close();
+                System.out.println("Conexión a SQLite cerrada.");
+            }
+        } finally {
+            lock.unlock();
         }
     }
 
@@ -71,34 +584,49 @@ public class DatabaseManager {
      * @throws SQLException Si ocurre un error al crear la tabla
      */
     public void createTable(String tableName) throws SQLException {
-        String sql = "CREATE TABLE IF NOT EXISTS " + tableName + " (\n"
-                + " id INTEGER PRIMARY KEY AUTOINCREMENT,\n"
-                + " nombre TEXT NOT NULL,\n"
-                + " descripcion TEXT\n"
-                + ");";
-        
-        try (Statement stmt = connection.createStatement()) {
-            stmt.execute(sql);
-            System.out.println("Tabla '" + tableName + "' creada o ya existe.");
+        Connection conn = tomarConexion(true);
+        try {
+            String sql = "CREATE TABLE IF NOT EXISTS " + tableName + " (\n"
+                    + " id INTEGER PRIMARY KEY AUTOINCREMENT,\n"
+                    + " nombre TEXT NOT NULL,\n"
+                    + " descripcion TEXT\n"
+                    + ");";
+            
+            try (Statement stmt = conn.createStatement()) {
+                stmt.execute(sql);
+                System.out.println("Tabla '" + tableName + "' creada o ya existe.");
+            }
+        } finally {
+            liberarConexion(conn);
         }
     }
 
     /**
-     * Crea la tabla 'tripulantes' con columnas id, nombre y graduación.
+     * Crea la tabla 'tripulantes' con columnas id, nombre, graduación, edad, facción, nave
+     * y código de origen (el id del XML en los tripulantes importados).
      * Si la tabla ya existe, no realiza ninguna acción.
      * 
      * @throws SQLException Si ocurre un error al crear la tabla
      */
     public void createTripulantesTable() throws SQLException {
-        String sql = "CREATE TABLE IF NOT EXISTS tripulantes (\n"
-                + " id INTEGER PRIMARY KEY AUTOINCREMENT,\n"
-                + " nombre TEXT NOT NULL,\n"
-                + " graduacion TEXT NOT NULL\n"
-                + ");";
-        
-        try (Statement stmt = connection.createStatement()) {
-            stmt.execute(sql);
-            System.out.println("Tabla 'tripulantes' creada o ya existe.");
+        Connection conn = tomarConexion(true);
+        try {
+            String sql = "CREATE TABLE IF NOT EXISTS tripulantes (\n"
+                    + " id INTEGER PRIMARY KEY AUTOINCREMENT,\n"
+                    + " nombre TEXT NOT NULL,\n"
+                    + " graduacion TEXT NOT NULL,\n"
+                    + " edad INTEGER,\n"
+                    + " faccion TEXT,\n"
+                    + " nave TEXT,\n"
+                    + " codigo TEXT\n"
+                    + ");";
+            
+            try (Statement stmt = conn.createStatement()) {
+                stmt.execute(sql);
+                System.out.println("Tabla 'tripulantes' creada o ya existe.");
+            }
+        } finally {
+            liberarConexion(conn);
         }
     }
 
@@ -109,17 +637,203 @@ public class DatabaseManager {
      * @throws SQLException Si ocurre un error al crear la tabla
      */
     public void createPlayerTable() throws SQLException {
-        String sql = "CREATE TABLE IF NOT EXISTS player (\n"
-                + " id INTEGER PRIMARY KEY AUTOINCREMENT,\n"
-                + " nombre TEXT NOT NULL\n"
-                + ");";
-        
+        Connection conn = tomarConexion(true);
+        try {
+            String sql = "CREATE TABLE IF NOT EXISTS player (\n"
+                    + " id INTEGER PRIMARY KEY AUTOINCREMENT,\n"
+                    + " nombre TEXT NOT NULL\n"
+                    + ");";
+            
+            try (Statement stmt = conn.createStatement()) {
+                stmt.execute(sql);
+                System.out.println("Tabla 'player' creada o ya existe.");
+            }
+        } finally {
+            liberarConexion(conn);
+        }
+    }
+
+    /**
+     * Crea la tabla 'naves' con el estado simulado de cada nave.
+     * Si la tabla ya existe, no realiza ninguna acción.
+     * 
+     * @throws SQLException Si ocurre un error al crear la tabla
+     */
+    public void createNavesTable() throws SQLException {
+        Connection conn = tomarConexion(true);
+        try {
+            String sql = "CREATE TABLE IF NOT EXISTS naves (\n"
+                    + " id TEXT PRIMARY KEY,\n"
+                    + " nombre TEXT NOT NULL,\n"
+                    + " faccion TEXT NOT NULL,\n"
+                    + " casco REAL NOT NULL,\n"
+                    + " energia REAL NOT NULL,\n"
+                    + " tripulacion INTEGER NOT NULL,\n"
+                    + " moral REAL NOT NULL\n"
+                    + ");";
+            
+            try (Statement stmt = conn.createStatement()) {
+                stmt.execute(sql);
+                System.out.println("Tabla 'naves' creada o ya existe.");
+            }
+        } finally {
+            liberarConexion(conn);
+        }
+    }
+
+    /**
+     * Añade una columna a una tabla si todavía no existe.
+     * SQLite no admite ADD COLUMN IF NOT EXISTS, por lo que se consulta PRAGMA table_info.
+     * 
+     * @param tableName Nombre de la tabla
+     * @param columnName Nombre de la columna
+     * @param type Tipo de la columna
+     * @throws SQLException Si ocurre un error al consultar o modificar la tabla
+     */
+    private void addColumnIfMissing(String tableName, String columnName, String type) throws SQLException {
         try (Statement stmt = connection.createStatement()) {
-            stmt.execute(sql);
-            System.out.println("Tabla 'player' creada o ya existe.");
+            try (ResultSet rs = stmt.executeQuery("PRAGMA table_info(" + tableName + ")")) {
+                while (rs.next()) {
+                    if (columnName.equalsIgnoreCase(rs.getString("name"))) {
+                        return;
+                    }
+                }
+            }
+            stmt.execute("ALTER TABLE " + tableName + " ADD COLUMN " + columnName + " " + type);
+            System.out.println("Columna '" + columnName + "' añadida a '" + tableName + "'.");
+        }
+    }
+
+    /**
+     * Crea las tablas de agregados de tripulantes y los triggers que las mantienen.
+     * 
+     * <p>'tripulantes_agg' guarda, por ámbito (global, facción o nave) y graduación, el
+     * número de tripulantes y la suma de sus edades; 'tripulantes_edad' guarda el
+     * histograma de edades por tramos de {@link #TRAMO_EDAD} años. Los triggers las
+     * actualizan en la misma transacción que cada INSERT, DELETE o UPDATE sobre
+     * 'tripulantes', de modo que las consultas de resumen no recorren la tabla.</p>
+     * 
+     * @throws SQLException Si ocurre un error al crear las tablas o los triggers
+     */
+    public void createAgregadosTables() throws SQLException {
+        Connection conn = tomarConexion(true);
+        try {
+            String sqlAgg = "CREATE TABLE IF NOT EXISTS tripulantes_agg (\n"
+                    + " ambito TEXT NOT NULL,\n"
+                    + " clave TEXT NOT NULL,\n"
+                    + " graduacion TEXT NOT NULL,\n"
+                    + " total INTEGER NOT NULL,\n"
+                    + " suma_edad INTEGER NOT NULL,\n"
+                    + " con_edad INTEGER NOT NULL,\n"
+                    + " PRIMARY KEY (ambito, clave, graduacion)\n"
+                    + ") WITHOUT ROWID;";
+            String sqlHist = "CREATE TABLE IF NOT EXISTS tripulantes_edad (\n"
+                    + " ambito TEXT NOT NULL,\n"
+                    + " clave TEXT NOT NULL,\n"
+                    + " graduacion TEXT NOT NULL,\n"
+                    + " tramo INTEGER NOT NULL,\n"
+                    + " total INTEGER NOT NULL,\n"
+                    + " PRIMARY KEY (ambito, clave, graduacion, tramo)\n"
+                    + ") WITHOUT ROWID;";
+
+            try (Statement stmt = conn.createStatement()) {
+                stmt.execute(sqlAgg);
+                stmt.execute(sqlHist);
+                stmt.execute("CREATE TRIGGER IF NOT EXISTS tripulantes_agg_insert AFTER INSERT ON tripulantes\n"
+                        + "BEGIN\n" + sqlSumarAgregados("NEW") + "END;");
+                stmt.execute("CREATE TRIGGER IF NOT EXISTS tripulantes_agg_delete AFTER DELETE ON tripulantes\n"
+                        + "BEGIN\n" + sqlRestarAgregados("OLD") + "END;");
+                stmt.execute("CREATE TRIGGER IF NOT EXISTS tripulantes_agg_update "
+                        + "AFTER UPDATE OF graduacion, edad, faccion, nave ON tripulantes\n"
+                        + "BEGIN\n" + sqlRestarAgregados("OLD") + sqlSumarAgregados("NEW") + "END;");
+                System.out.println("Tablas de agregados de 'tripulantes' creadas o ya existen.");
+            }
+        } finally {
+            liberarConexion(conn);
         }
     }
 
+    /**
+     * Genera las sentencias de trigger que suman una fila a los agregados.
+     * 
+     * @param fila Referencia a la fila en el trigger (NEW)
+     * @return Sentencias SQL terminadas en punto y coma
+     */
+    private static String sqlSumarAgregados(String fila) {
+        String ambitos = "(SELECT 'global' AS ambito, '' AS clave"
+                + " UNION ALL SELECT 'faccion', " + fila + ".faccion"
+                + " UNION ALL SELECT 'nave', " + fila + ".nave)";
+        return "INSERT INTO tripulantes_agg (ambito, clave, graduacion, total, suma_edad, con_edad)\n"
+                + " SELECT ambito, clave, " + fila + ".graduacion, 1, COALESCE(" + fila + ".edad, 0), "
+                + fila + ".edad IS NOT NULL\n"
+                + " FROM " + ambitos + " WHERE clave IS NOT NULL\n"
+                + " ON CONFLICT (ambito, clave, graduacion) DO UPDATE SET total = total + 1,"
+                + " suma_edad = suma_edad + excluded.suma_edad, con_edad = con_edad + excluded.con_edad;\n"
+                + "INSERT INTO tripulantes_edad (ambito, clave, graduacion, tramo, total)\n"
+                + " SELECT ambito, clave, " + fila + ".graduacion, " + sqlTramo(fila) + ", 1\n"
+                + " FROM " + ambitos + " WHERE clave IS NOT NULL AND " + fila + ".edad IS NOT NULL\n"
+                + " ON CONFLICT (ambito, clave, graduacion, tramo) DO UPDATE SET total = total + 1;\n";
+    }
+
+    /**
+     * Genera las sentencias de trigger que restan una fila de los agregados y
+     * eliminan los grupos que quedan vacíos.
+     * 
+     * @param fila Referencia a la fila en el trigger (OLD)
+     * @return Sentencias SQL terminadas en punto y coma
+     */
+    private static String sqlRestarAgregados(String fila) {
+        String claves = "graduacion = " + fila + ".graduacion AND ((ambito = 'global' AND clave = '')"
+                + " OR (ambito = 'faccion' AND clave = " + fila + ".faccion)"
+                + " OR (ambito = 'nave' AND clave = " + fila + ".nave))";
+        return "UPDATE tripulantes_agg SET total = total - 1,"
+                + " suma_edad = suma_edad - COALESCE(" + fila + ".edad, 0),"
+                + " con_edad = con_edad - (" + fila + ".edad IS NOT NULL)\n"
+                + " WHERE " + claves + ";\n"
+                + "DELETE FROM tripulantes_agg WHERE total = 0 AND " + claves + ";\n"
+                + "UPDATE tripulantes_edad SET total = total - 1\n"
+                + " WHERE tramo = " + sqlTramo(fila) + " AND " + claves + ";\n"
+                + "DELETE FROM tripulantes_edad WHERE total = 0 AND tramo = " + sqlTramo(fila)
+                + " AND " + claves + ";\n";
+    }
+
+    /**
+     * Genera la expresión SQL del tramo de edad de una fila.
+     * 
+     * @param fila Referencia a la fila
+     * @return Expresión SQL (NULL si la fila no tiene edad)
+     */
+    private static String sqlTramo(String fila) {
+        return "(" + fila + ".edad / " + TRAMO_EDAD + ") * " + TRAMO_EDAD;
+    }
+
+    /**
+     * Recalcula las tablas de agregados a partir de todas las filas de 'tripulantes'.
+     * Solo es necesario al crear las tablas sobre datos existentes; después las
+     * mantienen los triggers.
+     * 
+     * @throws SQLException Si ocurre un error al recalcular los agregados
+     */
+    public void rebuildAgregados() throws SQLException {
+        inTransaction(TransactionMode.READ_WRITE, conn -> {
+            String ambitos = "SELECT 'global' AS ambito, '' AS clave, graduacion, edad FROM tripulantes"
+                    + " UNION ALL SELECT 'faccion', faccion, graduacion, edad FROM tripulantes WHERE faccion IS NOT NULL"
+                    + " UNION ALL SELECT 'nave', nave, graduacion, edad FROM tripulantes WHERE nave IS NOT NULL";
+            try (Statement stmt = conn.createStatement()) {
+                stmt.execute("DELETE FROM tripulantes_agg");
+                stmt.execute("DELETE FROM tripulantes_edad");
+                stmt.execute("INSERT INTO tripulantes_agg (ambito, clave, graduacion, total, suma_edad, con_edad)"
+                        + " SELECT ambito, clave, graduacion, COUNT(*), COALESCE(SUM(edad), 0), COUNT(edad)"
+                        + " FROM (" + ambitos + ") GROUP BY ambito, clave, graduacion");
+                stmt.execute("INSERT INTO tripulantes_edad (ambito, clave, graduacion, tramo, total)"
+                        + " SELECT ambito, clave, graduacion, (edad / " + TRAMO_EDAD + ") * " + TRAMO_EDAD + " AS tramo, COUNT(*)"
+                        + " FROM (" + ambitos + ") WHERE edad IS NOT NULL GROUP BY ambito, clave, graduacion, tramo");
+            }
+            return null;
+        });
+        System.out.println("Agregados de 'tripulantes' recalculados.");
+    }
+
     /**
      * Inserta datos en una tabla genérica.
      * Utiliza PreparedStatement para prevenir inyección SQL.
@@ -130,13 +844,20 @@ public class DatabaseManager {
      * @throws SQLException Si ocurre un error al insertar los datos
      */
     public void insertData(String tableName, String nombre, String descripcion) throws SQLException {
-        String sql = "INSERT INTO " + tableName + " (nombre, descripcion) VALUES (?, ?)";
-        
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
-            pstmt.setString(1, nombre);
-            pstmt.setString(2, descripcion);
-            pstmt.executeUpdate();
-            System.out.println("Datos insertados en '" + tableName + "'.");
+        Connection conn = tomarConexion(true);
+        try {
+            String sql = "INSERT INTO " + tableName + " (nombre, descripcion) VALUES (?, ?)";
+            
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                pstmt.setString(1, nombre);
+                pstmt.setString(2, descripcion);
+                pstmt.executeUpdate();
+                if (verbose) {
+                    System.out.println("Datos insertados en '" + tableName + "'.");
+                }
+            }
+        } finally {
+            liberarConexion(conn);
         }
     }
 
@@ -149,13 +870,39 @@ public class DatabaseManager {
      * @throws SQLException Si ocurre un error al insertar el tripulante
      */
     public void insertTripulante(String nombre, String graduacion) throws SQLException {
-        String sql = "INSERT INTO tripulantes (nombre, graduacion) VALUES (?, ?)";
-        
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
-            pstmt.setString(1, nombre);
-            pstmt.setString(2, graduacion);
-            pstmt.executeUpdate();
-            System.out.println("Tripulante insertado: " + nombre + " - " + graduacion);
+        insertTripulante(nombre, graduacion, null, null, null);
+    }
+
+    /**
+     * Inserta un nuevo tripulante con su edad, facción y nave.
+     * Los agregados se actualizan en la misma transacción mediante triggers.
+     * 
+     * @param nombre Nombre del tripulante
+     * @param graduacion Graduación o rango del tripulante
+     * @param edad Edad del tripulante, o null si se desconoce
+     * @param faccion Facción del tripulante, o null si no tiene
+     * @param nave Identificador de la nave del tripulante, o null si no tiene
+     * @throws SQLException Si ocurre un error al insertar el tripulante
+     */
+    public void insertTripulante(String nombre, String graduacion, Integer edad, String faccion, String nave)
+            throws SQLException {
+        Connection conn = tomarConexion(true);
+        try {
+            String sql = "INSERT INTO tripulantes (nombre, graduacion, edad, faccion, nave) VALUES (?, ?, ?, ?, ?)";
+            
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                pstmt.setString(1, nombre);
+                pstmt.setString(2, graduacion);
+                pstmt.setObject(3, edad, Types.INTEGER);
+                pstmt.setString(4, faccion);
+                pstmt.setString(5, nave);
+                pstmt.executeUpdate();
+                if (verbose) {
+                    System.out.println("Tripulante insertado: " + nombre + " - " + graduacion);
+                }
+            }
+        } finally {
+            liberarConexion(conn);
         }
     }
 
@@ -167,12 +914,131 @@ public class DatabaseManager {
      * @throws SQLException Si ocurre un error al insertar el jugador
      */
     public void insertPlayer(String nombre) throws SQLException {
-        String sql = "INSERT INTO player (nombre) VALUES (?)";
-        
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
-            pstmt.setString(1, nombre);
-            pstmt.executeUpdate();
-            System.out.println("Jugador insertado: " + nombre);
+        Connection conn = tomarConexion(true);
+        try {
+            String sql = "INSERT INTO player (nombre) VALUES (?)";
+            
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                pstmt.setString(1, nombre);
+                pstmt.executeUpdate();
+                if (verbose) {
+                    System.out.println("Jugador insertado: " + nombre);
+                }
+            }
+        } finally {
+            liberarConexion(conn);
+        }
+    }
+
+    /**
+     * Elimina un tripulante.
+     * Los agregados se actualizan en la misma transacción mediante triggers.
+     * 
+     * @param id Identificador del tripulante
+     * @return true si el tripulante existía y se ha eliminado
+     * @throws SQLException Si ocurre un error al eliminar el tripulante
+     */
+    public boolean deleteTripulante(int id) throws SQLException {
+        Connection conn = tomarConexion(true);
+        try {
+            String sql = "DELETE FROM tripulantes WHERE id = ?";
+            
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                pstmt.setInt(1, id);
+                boolean eliminado = pstmt.executeUpdate() > 0;
+                if (verbose && eliminado) {
+                    System.out.println("Tripulante eliminado: " + id);
+                }
+                return eliminado;
+            }
+        } finally {
+            liberarConexion(conn);
+        }
+    }
+
+    /**
+     * Actualiza la graduación de un tripulante.
+     * 
+     * @param id Identificador del tripulante
+     * @param graduacion Nueva graduación del tripulante
+     * @return true si el tripulante existía y se ha actualizado
+     * @throws SQLException Si ocurre un error al actualizar el tripulante
+     */
+    public boolean updateGraduacion(int id, String graduacion) throws SQLException {
+        Connection conn = tomarConexion(true);
+        try {
+            String sql = "UPDATE tripulantes SET graduacion = ? WHERE id = ?";
+            
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                pstmt.setString(1, graduacion);
+                pstmt.setInt(2, id);
+                boolean actualizado = pstmt.executeUpdate() > 0;
+                if (verbose && actualizado) {
+                    System.out.println("Tripulante actualizado: " + id + " - " + graduacion);
+                }
+                return actualizado;
+            }
+        } finally {
+            liberarConexion(conn);
+        }
+    }
+
+    /**
+     * Busca un tripulante por su identificador.
+     * 
+     * @param id Identificador del tripulante
+     * @return Array {nombre, graduación}, o null si no existe
+     * @throws SQLException Si ocurre un error al consultar el tripulante
+     */
+    public String[] findTripulante(int id) throws SQLException {
+        Connection conn = tomarConexion(false);
+        try {
+            String sql = "SELECT nombre, graduacion FROM tripulantes WHERE id = ?";
+            
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                pstmt.setInt(1, id);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    return rs.next() ? new String[]{rs.getString("nombre"), rs.getString("graduacion")} : null;
+                }
+            }
+        } finally {
+            liberarConexion(conn);
+        }
+    }
+
+    /**
+     * Obtiene el mayor identificador de la tabla 'tripulantes'.
+     * 
+     * @return Mayor identificador, o 0 si la tabla está vacía
+     * @throws SQLException Si ocurre un error al consultar la tabla
+     */
+    public int getMaxTripulanteId() throws SQLException {
+        Connection conn = tomarConexion(false);
+        try {
+            try (Statement stmt = conn.createStatement();
+                 ResultSet rs = stmt.executeQuery("SELECT COALESCE(MAX(id), 0) FROM tripulantes")) {
+                return rs.next() ? rs.getInt(1) : 0;
+            }
+        } finally {
+            liberarConexion(conn);
+        }
+    }
+
+    /**
+     * Cuenta los tripulantes que proceden de una importación (con código de origen).
+     * 
+     * @return Número de tripulantes importados
+     * @throws SQLException Si ocurre un error al consultar la tabla
+     */
+    public int countTripulantesImportados() throws SQLException {
+        Connection conn = tomarConexion(false);
+        try {
+            try (Statement stmt = conn.createStatement();
+                 ResultSet rs = stmt.executeQuery("SELECT COUNT(codigo) FROM tripulantes")) {
+                return rs.next() ? rs.getInt(1) : 0;
+            }
+        } finally {
+            liberarConexion(conn);
         }
     }
 
@@ -184,17 +1050,22 @@ public class DatabaseManager {
      * @throws SQLException Si ocurre un error al consultar los datos
      */
     public void queryData(String tableName) throws SQLException {
-        String sql = "SELECT * FROM " + tableName;
-        
-        try (Statement stmt = connection.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
+        Connection conn = tomarConexion(false);
+        try {
+            String sql = "SELECT * FROM " + tableName;
             
-            System.out.println("\nDatos de la tabla '" + tableName + "':");
-            while (rs.next()) {
-                System.out.println("ID: " + rs.getInt("id") + 
-                                 ", Nombre: " + rs.getString("nombre") + 
-                                 ", Descripción: " + rs.getString("descripcion"));
+            try (Statement stmt = conn.createStatement();
+                 ResultSet rs = stmt.executeQuery(sql)) {
+                
+                System.out.println("\nDatos de la tabla '" + tableName + "':");
+                while (rs.next()) {
+                    System.out.println("ID: " + rs.getInt("id") + 
+                                     ", Nombre: " + rs.getString("nombre") + 
+                                     ", Descripción: " + rs.getString("descripcion"));
+                }
             }
+        } finally {
+            liberarConexion(conn);
         }
     }
 
@@ -205,17 +1076,22 @@ public class DatabaseManager {
      * @throws SQLException Si ocurre un error al consultar los tripulantes
      */
     public void queryTripulantes() throws SQLException {
-        String sql = "SELECT * FROM tripulantes";
-        
-        try (Statement stmt = connection.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
+        Connection conn = tomarConexion(false);
+        try {
+            String sql = "SELECT * FROM tripulantes";
             
-            System.out.println("\nTripulantes registrados:");
-            while (rs.next()) {
-                System.out.println("ID: " + rs.getInt("id") + 
-                                 ", Nombre: " + rs.getString("nombre") + 
-                                 ", Graduación: " + rs.getString("graduacion"));
+            try (Statement stmt = conn.createStatement();
+                 ResultSet rs = stmt.executeQuery(sql)) {
+                
+                System.out.println("\nTripulantes registrados:");
+                while (rs.next()) {
+                    System.out.println("ID: " + rs.getInt("id") + 
+                                     ", Nombre: " + rs.getString("nombre") + 
+                                     ", Graduación: " + rs.getString("graduacion"));
+                }
             }
+        } finally {
+            liberarConexion(conn);
         }
     }
 
@@ -226,21 +1102,28 @@ public class DatabaseManager {
      * @throws SQLException Si ocurre un error al consultar los jugadores
      */
     public void queryPlayers() throws SQLException {
-        String sql = "SELECT * FROM player";
-        
-        try (Statement stmt = connection.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
+        Connection conn = tomarConexion(false);
+        try {
+            String sql = "SELECT * FROM player";
             
-            System.out.println("\nJugadores registrados:");
-            while (rs.next()) {
-                System.out.println("ID: " + rs.getInt("id") + 
-                                 ", Nombre: " + rs.getString("nombre"));
+            try (Statement stmt = conn.createStatement();
+                 ResultSet rs = stmt.executeQuery(sql)) {
+                
+                System.out.println("\nJugadores registrados:");
+                while (rs.next()) {
+                    System.out.println("ID: " + rs.getInt("id") + 
+                                     ", Nombre: " + rs.getString("nombre"));
+                }
             }
+        } finally {
+            liberarConexion(conn);
         }
     }
 
     /**
-     * Obtiene la conexión actual a la base de datos.
+     * Obtiene la conexión principal (de escritura) a la base de datos.
+     * El uso directo de la conexión no está protegido por el cerrojo; desde varios
+     * hilos debe usarse {@link #inTransaction(TransactionMode, TransactionCallback)}.
      * 
      * @return La conexión activa a la base de datos SQLite
      */
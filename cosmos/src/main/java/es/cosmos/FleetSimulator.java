@@ -0,0 +1,468 @@
+package es.cosmos;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Motor de simulación por ticks de las flotas de la aplicación Cosmos.
+ * Avanza el estado de naves y tripulaciones en pasos de tiempo fijos.
+ *
+ * <p>El estado se guarda como estructura de arrays (un array primitivo por
+ * atributo) y las naves quedan agrupadas por facción en rangos contiguos.
+ * Cada tick reparte el trabajo por facción y por bloques de naves sobre un
+ * {@link ForkJoinPool}; el bucle interno no reserva memoria. Las naves cuyo
+ * estado cambia de forma apreciable se guardan en un único lote por tick.</p>
+ *
+ * @author Cosmos Team
+ * @version 1.0
+ * @since 2025
+ */
+public class FleetSimulator {
+    /** Duración de un tick en segundos de juego */
+    private static final double DT = 1.0;
+
+    /** Número de naves por bloque a partir del cual no se subdivide el trabajo */
+    private static final int UMBRAL_BLOQUE = 4096;
+
+    /** Diferencia mínima de casco o energía para volver a persistir una nave */
+    private static final double UMBRAL_PERSISTENCIA = 1.0;
+
+    /** Tripulación inicial de cada nave */
+    private static final int TRIPULACION_INICIAL = 400;
+
+    /** Probabilidad de combate por tick según facción */
+    private static final Map<String, Double> PROB_COMBATE = Map.of(
+            StarshipGenerator.FACCION_FEDERACION, 0.02,
+            StarshipGenerator.FACCION_ROMULANA, 0.04,
+            StarshipGenerator.FACCION_KLINGON, 0.06);
+
+    /** Probabilidad de combate por tick de las facciones que no están en {@link #PROB_COMBATE} */
+    private static final double PROB_COMBATE_DEFECTO = 0.04;
+
+    private static final String SQL_GUARDAR_NAVE = "INSERT INTO naves "
+            + "(id, nombre, faccion, casco, energia, tripulacion, moral) VALUES (?, ?, ?, ?, ?, ?, ?) "
+            + "ON CONFLICT(id) DO UPDATE SET casco = excluded.casco, energia = excluded.energia, "
+            + "tripulacion = excluded.tripulacion, moral = excluded.moral";
+
+    // --- Estado como estructura de arrays ---
+    private final String[] ids;
+    private final String[] nombres;
+    private final int[] faccion;
+    private final double[] casco;
+    private final double[] energia;
+    private final int[] tripulacion;
+    private final double[] moral;
+
+    // Último estado persistido, para detectar cambios
+    private final double[] cascoGuardado;
+    private final double[] energiaGuardada;
+    private final int[] tripulacionGuardada;
+    private final boolean[] modificada;
+
+    // Índices de naves pendientes de persistir (reutilizado en cada tick)
+    private final int[] pendientes;
+
+    /** Nombres de facción, en el orden en que se agrupan las naves */
+    private final String[] facciones;
+
+    /** Inicio de cada facción en los arrays; el último valor es el total de naves */
+    private final int[] inicioFaccion;
+
+    /** Probabilidad de combate de cada facción, por índice de facción */
+    private final double[] probCombate;
+
+    private final ForkJoinPool pool;
+    private long tick;
+
+    /**
+     * Constructor del simulador.
+     * Las naves de cada facción se colocan de forma contigua en el orden del mapa.
+     * Si un identificador se repite solo se simula la primera nave con él, ya que
+     * las demás se fundirían con ella al persistir.
+     *
+     * @param navesPorFaccion Pares {id, nombre} de las naves agrupados por facción
+     * @param pool Pool de hilos sobre el que repartir cada tick
+     */
+    public FleetSimulator(Map<String, List<String[]>> navesPorFaccion, ForkJoinPool pool) {
+        navesPorFaccion = descartarDuplicadas(navesPorFaccion);
+        int total = 0;
+        for (List<String[]> naves : navesPorFaccion.values()) {
+            total += naves.size();
+        }
+
+        this.pool = pool;
+        this.ids = new String[total];
+        this.nombres = new String[total];
+        this.faccion = new int[total];
+        this.casco = new double[total];
+        this.energia = new double[total];
+        this.tripulacion = new int[total];
+        this.moral = new double[total];
+        this.cascoGuardado = new double[total];
+        this.energiaGuardada = new double[total];
+        this.tripulacionGuardada = new int[total];
+        this.modificada = new boolean[total];
+        this.pendientes = new int[total];
+        this.facciones = navesPorFaccion.keySet().toArray(new String[0]);
+        this.inicioFaccion = new int[facciones.length + 1];
+        this.probCombate = new double[facciones.length];
+
+        int i = 0;
+        for (int f = 0; f < facciones.length; f++) {
+            inicioFaccion[f] = i;
+            probCombate[f] = PROB_COMBATE.getOrDefault(facciones[f], PROB_COMBATE_DEFECTO);
+            for (String[] nave : navesPorFaccion.get(facciones[f])) {
+                ids[i] = nave[0];
+                nombres[i] = nave[1];
+                faccion[i] = f;
+                casco[i] = 100.0;
+                energia[i] = 100.0;
+                tripulacion[i] = TRIPULACION_INICIAL;
+                moral[i] = 1.0;
+                // Fuerza la primera persistencia de todas las naves
+                cascoGuardado[i] = Double.NaN;
+                tripulacionGuardada[i] = -1;
+                i++;
+            }
+        }
+        inicioFaccion[facciones.length] = total;
+    }
+
+    /**
+     * Obtiene el número de naves simuladas.
+     *
+     * @return Número total de naves
+     */
+    public int getNumeroNaves() {
+        return ids.length;
+    }
+
+    /**
+     * Avanza la simulación un tick.
+     * Lanza una tarea por facción, que a su vez se divide en bloques de naves.
+     *
+     * @return Número de naves cuyo estado ha cambiado lo suficiente como para persistirse
+     */
+    public int avanzarTick() {
+        tick++;
+        TareaTick[] tareas = new TareaTick[facciones.length];
+        for (int f = 0; f < facciones.length; f++) {
+            tareas[f] = new TareaTick(inicioFaccion[f], inicioFaccion[f + 1]);
+        }
+        pool.invoke(new RecursiveAction() {
+            @Override
+            protected void compute() {
+                invokeAll(tareas);
+            }
+        });
+
+        // Recoger las naves modificadas en un único recorrido secuencial
+        int n = 0;
+        for (int i = 0; i < modificada.length; i++) {
+            if (modificada[i]) {
+                pendientes[n++] = i;
+            }
+        }
+        return n;
+    }
+
+    /**
+     * Guarda en la tabla 'naves' el estado de las naves modificadas en el último tick.
+     * Todas las filas se envían en un único lote y una única transacción.
+     *
+     * @param dbManager Gestor de base de datos
+     * @param cantidad Número de naves pendientes devuelto por {@link #avanzarTick()}
+     * @throws SQLException Si ocurre un error al guardar el lote
+     */
+    public void persistirCambios(DatabaseManager dbManager, int cantidad) throws SQLException {
+        if (cantidad == 0) {
+            return;
+        }
+
+        dbManager.inTransaction(DatabaseManager.TransactionMode.READ_WRITE, connection -> {
+            try (PreparedStatement pstmt = connection.prepareStatement(SQL_GUARDAR_NAVE)) {
+                for (int k = 0; k < cantidad; k++) {
+                    int i = pendientes[k];
+                    pstmt.setString(1, ids[i]);
+                    pstmt.setString(2, nombres[i]);
+                    pstmt.setString(3, facciones[faccion[i]]);
+                    pstmt.setDouble(4, casco[i]);
+                    pstmt.setDouble(5, energia[i]);
+                    pstmt.setInt(6, tripulacion[i]);
+                    pstmt.setDouble(7, moral[i]);
+                    pstmt.addBatch();
+                }
+                pstmt.executeBatch();
+            }
+            return null;
+        });
+
+        for (int k = 0; k < cantidad; k++) {
+            int i = pendientes[k];
+            cascoGuardado[i] = casco[i];
+            energiaGuardada[i] = energia[i];
+            tripulacionGuardada[i] = tripulacion[i];
+        }
+    }
+
+    /**
+     * Actualiza el estado de las naves en el rango indicado.
+     * No reserva memoria: todo el estado vive en los arrays del simulador.
+     *
+     * @param desde Primer índice (incluido)
+     * @param hasta Último índice (excluido)
+     */
+    private void simularRango(int desde, int hasta) {
+        for (int i = desde; i < hasta; i++) {
+            if (tripulacion[i] == 0) {
+                modificada[i] = false;
+                continue;
+            }
+
+            double azar = aleatorio(i, 0);
+
+            // Consumo y regeneración de energía
+            energia[i] = Math.min(100.0, energia[i] + (2.0 - 1.5 * moral[i]) * DT);
+
+            // Combate: daño al casco proporcional a la energía que no cubren los escudos
+            if (azar < probCombate[faccion[i]]) {
+                double danio = 5.0 + 20.0 * aleatorio(i, 1);
+                double escudos = Math.min(danio, energia[i] * 0.25);
+                energia[i] -= escudos;
+                casco[i] = Math.max(0.0, casco[i] - (danio - escudos));
+                moral[i] = Math.max(0.1, moral[i] - 0.05);
+            } else if (energia[i] > 50.0 && casco[i] < 100.0) {
+                // Reparaciones con la energía sobrante
+                casco[i] = Math.min(100.0, casco[i] + 0.5 * DT);
+                energia[i] -= 1.0 * DT;
+                moral[i] = Math.min(1.0, moral[i] + 0.01);
+            }
+
+            // Bajas de tripulación cuando el casco está comprometido
+            if (casco[i] < 30.0) {
+                int bajas = (int) ((30.0 - casco[i]) * aleatorio(i, 2));
+                tripulacion[i] = Math.max(0, tripulacion[i] - bajas);
+            }
+            if (casco[i] == 0.0) {
+                tripulacion[i] = 0;
+            }
+
+            modificada[i] = tripulacion[i] != tripulacionGuardada[i]
+                    || !(Math.abs(casco[i] - cascoGuardado[i]) < UMBRAL_PERSISTENCIA)
+                    || Math.abs(energia[i] - energiaGuardada[i]) >= 5 * UMBRAL_PERSISTENCIA;
+        }
+    }
+
+    /**
+     * Genera un número pseudoaleatorio en [0, 1) a partir del tick, la nave y un canal.
+     * Es determinista y no tiene estado compartido, por lo que es seguro entre hilos.
+     *
+     * @param nave Índice de la nave
+     * @param canal Canal para obtener valores independientes en un mismo tick
+     * @return Valor en [0, 1)
+     */
+    private double aleatorio(int nave, int canal) {
+        long z = tick * 0x9E3779B97F4A7C15L + nave * 0xC2B2AE3D27D4EB4FL + canal * 0x165667B19E3779F9L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        z = z ^ (z >>> 31);
+        return (z >>> 11) * 0x1.0p-53;
+    }
+
+    /**
+     * Tarea que simula un rango contiguo de naves de una misma facción,
+     * dividiéndose en dos mientras supere el tamaño de bloque.
+     */
+    private class TareaTick extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int desde;
+        private final int hasta;
+
+        TareaTick(int desde, int hasta) {
+            this.desde = desde;
+            this.hasta = hasta;
+        }
+
+        @Override
+        protected void compute() {
+            if (hasta - desde <= UMBRAL_BLOQUE) {
+                simularRango(desde, hasta);
+                return;
+            }
+            int medio = (desde + hasta) >>> 1;
+            invokeAll(new TareaTick(desde, medio), new TareaTick(medio, hasta));
+        }
+    }
+
+    /**
+     * Descarta las naves cuyo identificador ya ha aparecido antes, avisando por consola.
+     * La tabla 'naves' se guarda por id, así que dos naves con el mismo id acabarían
+     * en la misma fila.
+     *
+     * @param navesPorFaccion Pares {id, nombre} de las naves agrupados por facción
+     * @return El mismo mapa si no hay repetidos; si no, una copia sin las naves repetidas
+     */
+    static Map<String, List<String[]>> descartarDuplicadas(Map<String, List<String[]>> navesPorFaccion) {
+        int total = 0;
+        for (List<String[]> naves : navesPorFaccion.values()) {
+            total += naves.size();
+        }
+        String[] todos = new String[total];
+        int i = 0;
+        for (List<String[]> naves : navesPorFaccion.values()) {
+            for (String[] nave : naves) {
+                todos[i++] = nave[0];
+            }
+        }
+
+        List<String> duplicados = UniqueIdGuard.buscarDuplicados(todos);
+        if (duplicados.isEmpty()) {
+            return navesPorFaccion;
+        }
+        System.err.println("Aviso: " + duplicados.size() + " identificadores de nave repetidos; "
+                + "se simula solo la primera nave de cada uno: " + duplicados);
+
+        Set<String> repetidos = new HashSet<>(duplicados);
+        Set<String> vistos = new HashSet<>();
+        Map<String, List<String[]>> resultado = new LinkedHashMap<>();
+        for (Map.Entry<String, List<String[]>> entrada : navesPorFaccion.entrySet()) {
+            List<String[]> naves = new ArrayList<>(entrada.getValue().size());
+            for (String[] nave : entrada.getValue()) {
+                if (!repetidos.contains(nave[0]) || vistos.add(nave[0])) {
+                    naves.add(nave);
+                }
+            }
+            resultado.put(entrada.getKey(), naves);
+        }
+        return resultado;
+    }
+
+    /**
+     * Genera una flota sintética repartida a partes iguales entre las tres facciones.
+     * Los identificadores se derivan del índice para que sean únicos.
+     *
+     * @param total Número total de naves
+     * @return Pares {id, nombre} agrupados por facción
+     */
+    static Map<String, List<String[]>> generarNavesSinteticas(int total) {
+        String[] faccionesBase = {
+            StarshipGenerator.FACCION_FEDERACION,
+            StarshipGenerator.FACCION_ROMULANA,
+            StarshipGenerator.FACCION_KLINGON
+        };
+        String[][] nombresBase = {
+            StarshipGenerator.NOMBRES_FEDERACION,
+            StarshipGenerator.NOMBRES_ROMULANOS,
+            StarshipGenerator.NOMBRES_KLINGON
+        };
+        String[] prefijos = {"NCC", "IRW", "IKS"};
+
+        Map<String, List<String[]>> resultado = new LinkedHashMap<>();
+        for (int f = 0; f < faccionesBase.length; f++) {
+            int cantidad = total / faccionesBase.length + (f < total % faccionesBase.length ? 1 : 0);
+            List<String[]> naves = new ArrayList<>(cantidad);
+            for (int i = 0; i < cantidad; i++) {
+                String id = prefijos[f] + "-" + String.format("%06d", i);
+                String nombre = nombresBase[f][i % nombresBase[f].length];
+                naves.add(new String[]{id, nombre});
+            }
+            resultado.put(faccionesBase[f], naves);
+        }
+        return resultado;
+    }
+
+    /**
+     * Método principal que ejecuta la simulación y muestra la latencia por tick.
+     *
+     * <p>Argumentos opcionales: número de ticks (100 por defecto), número de naves y
+     * ruta de base de datos. Sin número de naves se usa la flota del snapshot del mundo
+     * (regenerado desde el archivo starship si está obsoleto) y se persiste en la base
+     * de datos del juego. Una flota sintética solo se persiste si se indica una ruta de
+     * base de datos, para no llenar la del juego con naves ficticias.</p>
+     *
+     * @param args Argumentos de línea de comandos
+     */
+    public static void main(String[] args) {
+        int ticks = args.length > 0 ? Integer.parseInt(args[0]) : 100;
+
+        try {
+            ConfigManager configManager = ConfigManager.getInstance();
+            boolean sintetica = args.length > 1;
+            Map<String, List<String[]>> naves = sintetica
+                    ? generarNavesSinteticas(Integer.parseInt(args[1]))
+                    : WorldSnapshot.restoreOrBuild(configManager.getSnapshotPath(), configManager.getCrewPath(),
+                            configManager.getStarshipPath()).getNavesPorFaccion();
+            String dbPath = sintetica
+                    ? (args.length > 2 ? args[2] : null)
+                    : configManager.getDatabasePath();
+
+            FleetSimulator simulador = new FleetSimulator(naves, ForkJoinPool.commonPool());
+            System.out.println("Simulando " + simulador.getNumeroNaves() + " naves durante " + ticks
+                    + " ticks con paralelismo " + ForkJoinPool.commonPool().getParallelism());
+
+            DatabaseManager dbManager = null;
+            if (dbPath != null) {
+                dbManager = new DatabaseManager(dbPath);
+                dbManager.connect();
+                dbManager.initializeDatabase();
+            } else {
+                System.out.println("Flota sintética sin ruta de base de datos: no se persiste.");
+            }
+
+            long[] latenciaTick = new long[ticks];
+            long[] latenciaPersistencia = new long[ticks];
+            long cambios = 0;
+            for (int t = 0; t < ticks; t++) {
+                long inicio = System.nanoTime();
+                int pendientes = simulador.avanzarTick();
+                long medio = System.nanoTime();
+                if (dbManager != null) {
+                    simulador.persistirCambios(dbManager, pendientes);
+                }
+                long fin = System.nanoTime();
+
+                latenciaTick[t] = medio - inicio;
+                latenciaPersistencia[t] = fin - medio;
+                cambios += pendientes;
+            }
+
+            System.out.println("Naves modificadas: " + cambios + " en " + ticks + " ticks");
+            mostrarLatencias("Simulación", latenciaTick);
+            if (dbManager != null) {
+                dbManager.disconnect();
+                mostrarLatencias("Persistencia", latenciaPersistencia);
+            }
+
+        } catch (Exception e) {
+            System.err.println("Error en la simulación: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Muestra por consola los percentiles de una serie de latencias.
+     *
+     * @param etiqueta Nombre de la fase medida
+     * @param latencias Latencias en nanosegundos (se ordenan en el propio array)
+     */
+    private static void mostrarLatencias(String etiqueta, long[] latencias) {
+        if (latencias.length == 0) {
+            return;
+        }
+        Arrays.sort(latencias);
+        System.out.printf("%s por tick (ms): p50=%.3f p99=%.3f max=%.3f%n", etiqueta,
+                latencias[(int) (latencias.length * 0.50)] / 1e6,
+                latencias[Math.min(latencias.length - 1, (int) (latencias.length * 0.99))] / 1e6,
+                latencias[latencias.length - 1] / 1e6);
+    }
+}
@@ -0,0 +1,130 @@
+package es.cosmos;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Histograma de latencias con cubetas log-lineales, seguro entre hilos.
+ *
+ * <p>Los valores menores que 64 se guardan de forma exacta; a partir de ahí cada
+ * potencia de dos se divide en 32 cubetas, con un error relativo máximo del 3 %.
+ * El registro no reserva memoria, por lo que puede usarse desde muchos hilos
+ * durante una prueba de carga.</p>
+ *
+ * @author Cosmos Team
+ * @version 1.0
+ * @since 2025
+ */
+public class LatencyHistogram {
+    /** Bits de precisión de cada potencia de dos (32 cubetas) */
+    private static final int SUB_BITS = 5;
+
+    /** Número de cubetas por potencia de dos */
+    private static final int SUB_CUBETAS = 1 << SUB_BITS;
+
+    /** Número total de cubetas para cubrir cualquier valor long positivo */
+    private static final int NUM_CUBETAS = (64 - SUB_BITS) * SUB_CUBETAS;
+
+    private final AtomicLongArray cubetas = new AtomicLongArray(NUM_CUBETAS);
+
+    /**
+     * Registra un valor.
+     *
+     * @param valor Valor a registrar (los negativos se registran como 0)
+     */
+    public void registrar(long valor) {
+        cubetas.incrementAndGet(indice(Math.max(0, valor)));
+    }
+
+    /**
+     * Suma a este histograma los valores de otro.
+     *
+     * @param otro Histograma a sumar
+     */
+    public void sumar(LatencyHistogram otro) {
+        for (int i = 0; i < NUM_CUBETAS; i++) {
+            long n = otro.cubetas.get(i);
+            if (n != 0) {
+                cubetas.addAndGet(i, n);
+            }
+        }
+    }
+
+    /**
+     * Obtiene el número de valores registrados.
+     *
+     * @return Número de valores
+     */
+    public long getTotal() {
+        long total = 0;
+        for (int i = 0; i < NUM_CUBETAS; i++) {
+            total += cubetas.get(i);
+        }
+        return total;
+    }
+
+    /**
+     * Obtiene el valor del percentil indicado.
+     * Devuelve el límite superior de la cubeta, por lo que nunca subestima la latencia.
+     *
+     * @param percentil Percentil entre 0 y 100
+     * @return Valor del percentil, o 0 si el histograma está vacío
+     */
+    public long getPercentil(double percentil) {
+        long total = getTotal();
+        if (total == 0) {
+            return 0;
+        }
+        long rango = Math.max(1, (long) Math.ceil(total * percentil / 100.0));
+        long acumulado = 0;
+        for (int i = 0; i < NUM_CUBETAS; i++) {
+            acumulado += cubetas.get(i);
+            if (acumulado >= rango) {
+                return limiteSuperior(i);
+            }
+        }
+        return limiteSuperior(NUM_CUBETAS - 1);
+    }
+
+    /**
+     * Obtiene el mayor valor registrado (límite superior de su cubeta).
+     *
+     * @return Valor máximo, o 0 si el histograma está vacío
+     */
+    public long getMaximo() {
+        for (int i = NUM_CUBETAS - 1; i >= 0; i--) {
+            if (cubetas.get(i) != 0) {
+                return limiteSuperior(i);
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Calcula la cubeta de un valor.
+     *
+     * @param valor Valor no negativo
+     * @return Índice de la cubeta
+     */
+    private static int indice(long valor) {
+        if (valor < 2 * SUB_CUBETAS) {
+            return (int) valor;
+        }
+        int desplazamiento = 63 - Long.numberOfLeadingZeros(valor) - SUB_BITS;
+        return desplazamiento * SUB_CUBETAS + (int) (valor >>> desplazamiento);
+    }
+
+    /**
+     * Calcula el mayor valor que cae en una cubeta.
+     *
+     * @param indice Índice de la cubeta
+     * @return Límite superior de la cubeta
+     */
+    private static long limiteSuperior(int indice) {
+        if (indice < 2 * SUB_CUBETAS) {
+            return indice;
+        }
+        int desplazamiento = indice / SUB_CUBETAS - 1;
+        long sub = indice % SUB_CUBETAS + SUB_CUBETAS;
+        return ((sub + 1) << desplazamiento) - 1;
+    }
+}
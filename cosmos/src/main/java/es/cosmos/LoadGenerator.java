@@ -0,0 +1,417 @@
+package es.cosmos;
+
+import com.google.gson.Gson;
+import com.google.gson.annotations.SerializedName;
+
+import java.io.FileReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Generador de carga para medir la capacidad del servidor Cosmos.
+ * Simula N jugadores concurrentes, cada uno en un hilo virtual, que lanzan
+ * registros, consultas y actualizaciones de tripulantes sobre la base de datos
+ * local según un perfil configurable.
+ *
+ * <p>Cada jugador sigue un calendario fijo de operaciones. La latencia se mide
+ * desde el instante en que la operación debería haber empezado y no desde que
+ * empieza realmente, de modo que las esperas causadas por un servidor lento
+ * también cuentan (corrección de la omisión coordinada). También se muestra la
+ * latencia sin corregir para comparar.</p>
+ *
+ * @author Cosmos Team
+ * @version 1.0
+ * @since 2025
+ */
+public class LoadGenerator {
+    /** Tripulantes que se insertan si la tabla está vacía, para poder consultarlos */
+    private static final int TRIPULANTES_INICIALES = 1000;
+
+    /**
+     * Perfil de carga. Se lee de un archivo JSON; los campos ausentes conservan su valor por defecto.
+     */
+    public static class LoadProfile {
+        /** Número de jugadores concurrentes */
+        @SerializedName("jugadores")
+        private int jugadores = 100;
+
+        /** Duración de la medición en segundos */
+        @SerializedName("duracionSegundos")
+        private int duracionSegundos = 30;
+
+        /** Duración del calentamiento en segundos (no se mide) */
+        @SerializedName("calentamientoSegundos")
+        private int calentamientoSegundos = 5;
+
+        /** Operaciones por segundo que lanza cada jugador */
+        @SerializedName("operacionesPorSegundo")
+        private double operacionesPorSegundo = 10;
+
+        /** Peso relativo de los registros de jugador */
+        @SerializedName("pesoRegistro")
+        private int pesoRegistro = 10;
+
+        /** Peso relativo de las consultas de tripulantes */
+        @SerializedName("pesoConsulta")
+        private int pesoConsulta = 70;
+
+        /** Peso relativo de las actualizaciones de tripulantes */
+        @SerializedName("pesoActualizacion")
+        private int pesoActualizacion = 20;
+
+        /**
+         * Comprueba que el perfil se puede ejecutar.
+         *
+         * @throws IllegalArgumentException Si algún valor está fuera de rango
+         */
+        void validar() {
+            if (jugadores <= 0) {
+                throw new IllegalArgumentException("jugadores debe ser mayor que 0: " + jugadores);
+            }
+            if (duracionSegundos <= 0) {
+                throw new IllegalArgumentException("duracionSegundos debe ser mayor que 0: " + duracionSegundos);
+            }
+            if (calentamientoSegundos < 0) {
+                throw new IllegalArgumentException("calentamientoSegundos no puede ser negativo: "
+                        + calentamientoSegundos);
+            }
+            // Con más de 10^9 op/s el intervalo entre operaciones sería de 0 ns
+            if (!(operacionesPorSegundo > 0 && operacionesPorSegundo <= TimeUnit.SECONDS.toNanos(1))) {
+                throw new IllegalArgumentException("operacionesPorSegundo debe estar entre 0 (excluido) y 1e9: "
+                        + operacionesPorSegundo);
+            }
+            if (pesoRegistro < 0 || pesoConsulta < 0 || pesoActualizacion < 0) {
+                throw new IllegalArgumentException("Los pesos de las operaciones no pueden ser negativos");
+            }
+            long totalPesos = (long) pesoRegistro + pesoConsulta + pesoActualizacion;
+            if (totalPesos == 0 || totalPesos > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("La suma de los pesos debe estar entre 1 y "
+                        + Integer.MAX_VALUE + ": " + totalPesos);
+            }
+        }
+    }
+
+    /**
+     * Tipos de operación que lanza un jugador.
+     */
+    private enum Operacion {
+        REGISTRO, CONSULTA, ACTUALIZACION
+    }
+
+    private final LoadProfile perfil;
+    private final DatabaseManager dbManager;
+    private final int maxTripulanteId;
+
+    // Histogramas por operación, en microsegundos
+    private final LatencyHistogram[] corregida = new LatencyHistogram[Operacion.values().length];
+    private final LatencyHistogram[] sinCorregir = new LatencyHistogram[Operacion.values().length];
+    private final AtomicLong errores = new AtomicLong();
+    private int jugadoresFallidos;
+
+    // Ventana de medición y fin de la última operación medida (System.nanoTime)
+    private long inicioMedicion;
+    private long fin;
+    private final AtomicLong ultimaTerminada = new AtomicLong(Long.MIN_VALUE);
+
+    /**
+     * Constructor del generador de carga.
+     *
+     * @param perfil Perfil de carga
+     * @param dbManager Gestor de base de datos compartido por todos los jugadores
+     * @param maxTripulanteId Mayor identificador de tripulante existente
+     */
+    public LoadGenerator(LoadProfile perfil, DatabaseManager dbManager, int maxTripulanteId) {
+        this.perfil = perfil;
+        this.dbManager = dbManager;
+        this.maxTripulanteId = maxTripulanteId;
+        for (int i = 0; i < corregida.length; i++) {
+            corregida[i] = new LatencyHistogram();
+            sinCorregir[i] = new LatencyHistogram();
+        }
+    }
+
+    /**
+     * Ejecuta la prueba de carga y espera a que terminen todos los jugadores.
+     * Un jugador que termina con una excepción inesperada deja de lanzar
+     * operaciones; se muestra el error y se cuenta en los resultados.
+     *
+     * @throws InterruptedException Si se interrumpe la espera
+     */
+    public void ejecutar() throws InterruptedException {
+        long intervalo = (long) (TimeUnit.SECONDS.toNanos(1) / perfil.operacionesPorSegundo);
+        long inicio = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(100);
+        inicioMedicion = inicio + TimeUnit.SECONDS.toNanos(perfil.calentamientoSegundos);
+        fin = inicioMedicion + TimeUnit.SECONDS.toNanos(perfil.duracionSegundos);
+
+        List<Future<?>> tareas = new ArrayList<>(perfil.jugadores);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int j = 0; j < perfil.jugadores; j++) {
+                // Escalonar los jugadores para no lanzar todas las operaciones a la vez
+                long desfase = intervalo * j / perfil.jugadores;
+                tareas.add(executor.submit(() -> simularJugador(inicio + desfase, intervalo, inicioMedicion, fin)));
+            }
+        }
+
+        for (int j = 0; j < tareas.size(); j++) {
+            try {
+                tareas.get(j).get();
+            } catch (ExecutionException e) {
+                // Solo se muestra la traza del primer fallo; suelen repetirse en todos los jugadores
+                if (jugadoresFallidos++ == 0) {
+                    System.err.println("El jugador " + j + " terminó con un error:");
+                    e.getCause().printStackTrace();
+                }
+            }
+        }
+    }
+
+    /**
+     * Bucle de un jugador: lanza una operación en cada instante de su calendario.
+     * Si una operación se retrasa, las siguientes se lanzan sin esperar y su
+     * latencia incluye el retraso acumulado.
+     *
+     * @param primera Instante previsto de la primera operación
+     * @param intervalo Tiempo entre operaciones en nanosegundos
+     * @param inicioMedicion Instante a partir del cual se registran latencias
+     * @param fin Instante en que el jugador deja de lanzar operaciones
+     */
+    private void simularJugador(long primera, long intervalo, long inicioMedicion, long fin) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (long prevista = primera; prevista < fin; prevista += intervalo) {
+            long espera;
+            while ((espera = prevista - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(espera);
+            }
+
+            Operacion operacion = elegirOperacion(random);
+            long inicioReal = System.nanoTime();
+            try {
+                lanzar(operacion, random);
+            } catch (SQLException e) {
+                errores.incrementAndGet();
+            }
+            long terminada = System.nanoTime();
+
+            if (prevista >= inicioMedicion) {
+                corregida[operacion.ordinal()].registrar((terminada - prevista) / 1000);
+                sinCorregir[operacion.ordinal()].registrar((terminada - inicioReal) / 1000);
+                ultimaTerminada.accumulateAndGet(terminada, Math::max);
+            }
+        }
+    }
+
+    /**
+     * Elige una operación al azar según los pesos del perfil.
+     *
+     * @param random Generador de números aleatorios
+     * @return Operación elegida
+     */
+    private Operacion elegirOperacion(ThreadLocalRandom random) {
+        int total = perfil.pesoRegistro + perfil.pesoConsulta + perfil.pesoActualizacion;
+        int valor = random.nextInt(total);
+        if (valor < perfil.pesoRegistro) {
+            return Operacion.REGISTRO;
+        }
+        if (valor < perfil.pesoRegistro + perfil.pesoConsulta) {
+            return Operacion.CONSULTA;
+        }
+        return Operacion.ACTUALIZACION;
+    }
+
+    /**
+     * Lanza una operación contra la base de datos.
+     *
+     * @param operacion Operación a lanzar
+     * @param random Generador de números aleatorios
+     * @throws SQLException Si la operación falla
+     */
+    private void lanzar(Operacion operacion, ThreadLocalRandom random) throws SQLException {
+        switch (operacion) {
+            case REGISTRO -> dbManager.insertPlayer(nombreAleatorio(random));
+            case CONSULTA -> {
+                // Las consultas van por una conexión de lectura, sin esperar al cerrojo de escritura
+                int id = 1 + random.nextInt(maxTripulanteId);
+                dbManager.inTransaction(DatabaseManager.TransactionMode.READ_ONLY,
+                        connection -> dbManager.findTripulante(id));
+            }
+            case ACTUALIZACION -> dbManager.updateGraduacion(1 + random.nextInt(maxTripulanteId),
+                    CrewGenerator.RANGOS[random.nextInt(CrewGenerator.RANGOS.length)]);
+        }
+    }
+
+    /**
+     * Muestra por consola el rendimiento y los percentiles de latencia.
+     * El rendimiento divide las operaciones medidas entre el tiempo transcurrido
+     * desde el inicio de la medición hasta que termina la última de ellas, así que
+     * si el servidor no sigue el ritmo queda por debajo del objetivo.
+     */
+    public void mostrarResultados() {
+        LatencyHistogram totalCorregida = new LatencyHistogram();
+        LatencyHistogram totalSinCorregir = new LatencyHistogram();
+        for (int i = 0; i < corregida.length; i++) {
+            totalCorregida.sumar(corregida[i]);
+            totalSinCorregir.sumar(sinCorregir[i]);
+        }
+
+        long operaciones = totalCorregida.getTotal();
+        double transcurrido = operaciones == 0 ? 0 : (ultimaTerminada.get() - inicioMedicion) / 1e9;
+        System.out.println("\nResultados de la prueba de carga (" + perfil.jugadores + " jugadores, "
+                + perfil.duracionSegundos + " s):");
+        System.out.printf("Rendimiento: %.1f op/s en %.1f s (objetivo %.1f op/s), errores: %d%n",
+                transcurrido > 0 ? operaciones / transcurrido : 0, transcurrido,
+                perfil.jugadores * perfil.operacionesPorSegundo, errores.get());
+        if (operaciones > 0 && ultimaTerminada.get() > fin) {
+            System.out.printf("Aviso: la medición se alargó %.1f s sobre los %d s previstos; "
+                    + "el servidor no alcanzó el ritmo objetivo.%n",
+                    (ultimaTerminada.get() - fin) / 1e9, perfil.duracionSegundos);
+        }
+        if (jugadoresFallidos > 0) {
+            System.out.println("Aviso: " + jugadoresFallidos + " de " + perfil.jugadores
+                    + " jugadores terminaron antes de tiempo por un error; los resultados son parciales.");
+        }
+        System.out.println("Latencias en ms (corregidas por omisión coordinada):");
+        for (Operacion operacion : Operacion.values()) {
+            mostrarLinea(operacion.name(), corregida[operacion.ordinal()]);
+        }
+        mostrarLinea("TOTAL", totalCorregida);
+        System.out.println("Latencias en ms sin corregir (solo tiempo de servicio):");
+        mostrarLinea("TOTAL", totalSinCorregir);
+    }
+
+    /**
+     * Muestra una línea con los percentiles de un histograma.
+     *
+     * @param etiqueta Nombre de la fila
+     * @param histograma Histograma en microsegundos
+     */
+    private static void mostrarLinea(String etiqueta, LatencyHistogram histograma) {
+        System.out.printf("  %-14s n=%-9d p50=%-9.3f p99=%-9.3f p99.9=%-9.3f max=%.3f%n", etiqueta,
+                histograma.getTotal(),
+                histograma.getPercentil(50) / 1000.0,
+                histograma.getPercentil(99) / 1000.0,
+                histograma.getPercentil(99.9) / 1000.0,
+                histograma.getMaximo() / 1000.0);
+    }
+
+    /**
+     * Genera un nombre de jugador a partir de los bancos de nombres de {@link CrewGenerator}.
+     *
+     * @param random Generador de números aleatorios
+     * @return Nombre y apellido aleatorios
+     */
+    private static String nombreAleatorio(ThreadLocalRandom random) {
+        return CrewGenerator.NOMBRES[random.nextInt(CrewGenerator.NOMBRES.length)] + " "
+                + CrewGenerator.APELLIDOS[random.nextInt(CrewGenerator.APELLIDOS.length)];
+    }
+
+    /**
+     * Inserta tripulantes aleatorios en una única transacción para que las
+     * consultas y actualizaciones encuentren filas. Cada uno tiene edad y facción
+     * y, si la tabla 'naves' tiene naves de su facción, una de ellas, para que los
+     * agregados por facción y por nave también tengan datos.
+     *
+     * @param dbManager Gestor de base de datos
+     * @param cantidad Número de tripulantes a insertar
+     * @throws SQLException Si ocurre un error al insertar
+     */
+    private static void sembrarTripulantes(DatabaseManager dbManager, int cantidad) throws SQLException {
+        dbManager.inTransaction(connection -> {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            String[] facciones = {
+                StarshipGenerator.FACCION_FEDERACION,
+                StarshipGenerator.FACCION_ROMULANA,
+                StarshipGenerator.FACCION_KLINGON
+            };
+            Map<String, List<String>> navesPorFaccion = new HashMap<>();
+            try (Statement stmt = connection.createStatement();
+                 ResultSet rs = stmt.executeQuery("SELECT id, faccion FROM naves")) {
+                while (rs.next()) {
+                    navesPorFaccion.computeIfAbsent(rs.getString("faccion"), k -> new ArrayList<>())
+                            .add(rs.getString("id"));
+                }
+            }
+
+            try (PreparedStatement pstmt = connection.prepareStatement(
+                    "INSERT INTO tripulantes (nombre, graduacion, edad, faccion, nave) VALUES (?, ?, ?, ?, ?)")) {
+                for (int i = 0; i < cantidad; i++) {
+                    String faccion = facciones[random.nextInt(facciones.length)];
+                    List<String> naves = navesPorFaccion.getOrDefault(faccion, List.of());
+                    pstmt.setString(1, nombreAleatorio(random));
+                    pstmt.setString(2, CrewGenerator.RANGOS[random.nextInt(CrewGenerator.RANGOS.length)]);
+                    pstmt.setInt(3, 18 + random.nextInt(48));
+                    pstmt.setString(4, faccion);
+                    pstmt.setString(5, naves.isEmpty() ? null : naves.get(random.nextInt(naves.size())));
+                    pstmt.addBatch();
+                }
+                pstmt.executeBatch();
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Método principal que lanza la prueba de carga contra la base de datos configurada.
+     *
+     * @param args Ruta opcional a un archivo JSON con el perfil de carga
+     */
+    public static void main(String[] args) {
+        try {
+            LoadProfile perfil = new LoadProfile();
+            if (args.length > 0) {
+                try (FileReader reader = new FileReader(args[0], StandardCharsets.UTF_8)) {
+                    perfil = new Gson().fromJson(reader, LoadProfile.class);
+                } catch (IOException e) {
+                    throw new IOException("No se encuentra el perfil de carga: " + args[0], e);
+                }
+                if (perfil == null) {
+                    throw new IllegalArgumentException("El perfil de carga está vacío: " + args[0]);
+                }
+            }
+            try {
+                perfil.validar();
+            } catch (IllegalArgumentException e) {
+                System.err.println("Perfil de carga no válido: " + e.getMessage());
+                return;
+            }
+
+            ConfigManager configManager = ConfigManager.getInstance();
+            DatabaseManager dbManager = new DatabaseManager(configManager.getDatabasePath());
+            dbManager.connect();
+            dbManager.initializeDatabase();
+            dbManager.setVerbose(false);
+
+            if (dbManager.getMaxTripulanteId() == 0) {
+                sembrarTripulantes(dbManager, TRIPULANTES_INICIALES);
+            }
+
+            LoadGenerator generador = new LoadGenerator(perfil, dbManager, dbManager.getMaxTripulanteId());
+            System.out.println("Lanzando " + perfil.jugadores + " jugadores a " + perfil.operacionesPorSegundo
+                    + " op/s cada uno durante " + perfil.calentamientoSegundos + " s de calentamiento y "
+                    + perfil.duracionSegundos + " s de medición...");
+            generador.ejecutar();
+            generador.mostrarResultados();
+
+            dbManager.disconnect();
+
+        } catch (Exception e) {
+            System.err.println("Error en la prueba de carga: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+}
@@ -11,6 +11,7 @@ import javax.xml.transform.TransformerFactory;
 import javax.xml.transform.dom.DOMSource;
 import javax.xml.transform.stream.StreamResult;
 import java.io.File;
+import java.sql.SQLException;
 import java.util.Random;
 
 /**
@@ -23,22 +24,27 @@ import java.util.Random;
  */
 public class StarshipGenerator {
 
+    // Nombres de las facciones (comparten orden con los bancos de nombres)
+    static final String FACCION_FEDERACION = "Federacion Unida de Planetas";
+    static final String FACCION_ROMULANA = "Imperio Estelar Romulano";
+    static final String FACCION_KLINGON = "Imperio Klingon";
+
     // Nombres de naves de la Federación
-    private static final String[] NOMBRES_FEDERACION = {
+    static final String[] NOMBRES_FEDERACION = {
         "Enterprise", "Voyager", "Defiant", "Discovery", "Reliant", 
         "Excalibur", "Constellation", "Yamato", "Phoenix", "Prometheus",
         "Equinox", "Titan", "Aurora", "Odyssey", "Sovereign"
     };
     
     // Nombres de naves Romulanas
-    private static final String[] NOMBRES_ROMULANOS = {
+    static final String[] NOMBRES_ROMULANOS = {
         "Valdore", "Devoras", "Khazara", "Algeron", "Terix",
         "Haakona", "Dividices", "Makar", "D'deridex", "Mogai",
         "Norexan", "Praetus", "Belak", "Keras", "Talvath"
     };
     
     // Nombres de naves Klingon
-    private static final String[] NOMBRES_KLINGON = {
+    static final String[] NOMBRES_KLINGON = {
         "Pagh", "Bortas", "Hegh'ta", "Rotarran", "Ch'Tang",
         "Korinar", "Maht-H'a", "K'mpec", "Kronos One", "Negh'Var",
         "Buruk", "Drovana", "Gr'oth", "Klothos", "Somraw"
@@ -71,17 +77,20 @@ public class StarshipGenerator {
 
             Random random = new Random();
 
+            // Control de unicidad de los identificadores, compartido por las tres facciones
+            UniqueIdGuard guard = new UniqueIdGuard(90);
+
             // Generar 30 naves de la Federación
-            generarNavesFactcion(doc, rootElement, "Federacion Unida de Planetas", 
-                                NOMBRES_FEDERACION, PREFIJOS_FEDERACION, 30, random);
+            generarNavesFactcion(doc, rootElement, FACCION_FEDERACION, 
+                                NOMBRES_FEDERACION, PREFIJOS_FEDERACION, 30, random, guard);
             
             // Generar 30 naves del Imperio Romulano
-            generarNavesFactcion(doc, rootElement, "Imperio Estelar Romulano", 
-                                NOMBRES_ROMULANOS, new String[]{PREFIJO_ROMULANO}, 30, random);
+            generarNavesFactcion(doc, rootElement, FACCION_ROMULANA, 
+                                NOMBRES_ROMULANOS, new String[]{PREFIJO_ROMULANO}, 30, random, guard);
             
             // Generar 30 naves del Imperio Klingon
-            generarNavesFactcion(doc, rootElement, "Imperio Klingon", 
-                                NOMBRES_KLINGON, new String[]{PREFIJO_KLINGON}, 30, random);
+            generarNavesFactcion(doc, rootElement, FACCION_KLINGON, 
+                                NOMBRES_KLINGON, new String[]{PREFIJO_KLINGON}, 30, random, guard);
 
             // Escribir el contenido en un archivo XML
             TransformerFactory transformerFactory = TransformerFactory.newInstance();
@@ -97,6 +106,7 @@ public class StarshipGenerator {
             transformer.transform(source, result);
 
             System.out.println("¡Archivo " + starshipPath + " generado con éxito con 90 naves!");
+            guard.mostrarEstadisticas("naves");
 
         } catch (Exception e) {
             e.printStackTrace();
@@ -113,17 +123,23 @@ public class StarshipGenerator {
      * @param prefijos Array de prefijos para identificadores
      * @param cantidad Cantidad de naves a generar
      * @param random Generador de números aleatorios
+     * @param guard Control de unicidad de los identificadores
+     * @throws SQLException Si falla la comprobación de unicidad
      */
     private static void generarNavesFactcion(Document doc, Element rootElement, String faccion,
-                                            String[] nombres, String[] prefijos, int cantidad, Random random) {
+                                            String[] nombres, String[] prefijos, int cantidad, Random random,
+                                            UniqueIdGuard guard) throws SQLException {
         for (int i = 0; i < cantidad; i++) {
             // Crear elemento <starship>
             Element starship = doc.createElement("starship");
             
-            // Generar identificador único
-            String prefijo = prefijos[random.nextInt(prefijos.length)];
-            String numeroRegistro = String.format("%05d", random.nextInt(100000));
-            String identificador = prefijo + "-" + numeroRegistro;
+            // Generar identificador único (se regenera si colisiona con uno anterior)
+            String identificador;
+            do {
+                String prefijo = prefijos[random.nextInt(prefijos.length)];
+                String numeroRegistro = String.format("%05d", random.nextInt(100000));
+                identificador = prefijo + "-" + numeroRegistro;
+            } while (!guard.tryAdd(identificador));
             
             // Generar nombre (nombre base + sufijo aleatorio si es necesario)
             String nombreBase = nombres[random.nextInt(nombres.length)];
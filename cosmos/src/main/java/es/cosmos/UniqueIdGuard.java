@@ -0,0 +1,173 @@
+package es.cosmos;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Control de unicidad de identificadores generados o importados.
+ *
+ * <p>Un {@link BloomFilter} delante de una comprobación exacta: los identificadores
+ * nuevos, que son el caso habitual, pasan sin consultar ningún conjunto ni la base
+ * de datos. Solo cuando el filtro responde "puede que esté" se recurre a la
+ * comprobación exacta; sin ella, se trata como colisión, lo que en un generador
+ * solo cuesta volver a generar el identificador. Con comprobación exacta las
+ * estadísticas distinguen las colisiones reales de los falsos positivos del filtro;
+ * sin ella solo pueden contar posibles colisiones.</p>
+ *
+ * <p>No es seguro entre hilos.</p>
+ *
+ * @author Cosmos Team
+ * @version 1.0
+ * @since 2025
+ */
+public class UniqueIdGuard {
+    /** Tasa de falsos positivos por defecto del filtro */
+    public static final double TASA_FALSOS_POSITIVOS = 0.001;
+
+    /**
+     * Comprobación exacta de si un identificador ya existe, p. ej. consultando la base de datos.
+     */
+    @FunctionalInterface
+    public interface ExactCheck {
+        /**
+         * Comprueba si el identificador ya existe.
+         *
+         * @param id Identificador
+         * @return true si ya existe
+         * @throws SQLException Si ocurre un error al consultar
+         */
+        boolean exists(String id) throws SQLException;
+    }
+
+    private final BloomFilter filtro;
+    private final ExactCheck exacto;
+
+    // Estadísticas
+    private long aceptados;
+    private long comprobacionesExactas;
+    private long falsosPositivos;
+    private long colisiones;
+
+    /**
+     * Constructor sin comprobación exacta, pensado para generadores:
+     * cualquier posible coincidencia se trata como colisión.
+     *
+     * @param esperados Número de identificadores que se espera registrar
+     */
+    public UniqueIdGuard(long esperados) {
+        this(esperados, TASA_FALSOS_POSITIVOS, null);
+    }
+
+    /**
+     * Constructor del control de unicidad.
+     *
+     * @param esperados Número de identificadores que se espera registrar
+     * @param tasaFalsosPositivos Tasa de falsos positivos del filtro
+     * @param exacto Comprobación exacta, o null para tratar toda posible coincidencia como colisión
+     */
+    public UniqueIdGuard(long esperados, double tasaFalsosPositivos, ExactCheck exacto) {
+        this.filtro = new BloomFilter(esperados, tasaFalsosPositivos);
+        this.exacto = exacto;
+    }
+
+    /**
+     * Registra un identificador si es nuevo.
+     *
+     * @param id Identificador
+     * @return true si el identificador es nuevo y queda registrado; false si es una colisión
+     * @throws SQLException Si falla la comprobación exacta
+     */
+    public boolean tryAdd(String id) throws SQLException {
+        if (filtro.mightContain(id)) {
+            if (exacto == null) {
+                colisiones++;
+                return false;
+            }
+            comprobacionesExactas++;
+            if (exacto.exists(id)) {
+                colisiones++;
+                return false;
+            }
+            falsosPositivos++;
+        }
+        filtro.put(id);
+        aceptados++;
+        return true;
+    }
+
+    /**
+     * Añade al filtro un identificador que ya existe (p. ej. leído de la base de datos),
+     * para que los nuevos que coincidan con él pasen por la comprobación exacta.
+     * No cuenta en las estadísticas.
+     *
+     * @param id Identificador existente
+     */
+    public void registrarExistente(String id) {
+        filtro.put(id);
+    }
+
+    /**
+     * Obtiene el número de colisiones detectadas (incluidos los falsos positivos
+     * cuando no hay comprobación exacta).
+     *
+     * @return Número de colisiones
+     */
+    public long getColisiones() {
+        return colisiones;
+    }
+
+    /**
+     * Muestra por consola las estadísticas del control de unicidad.
+     *
+     * @param etiqueta Nombre de los identificadores controlados
+     */
+    public void mostrarEstadisticas(String etiqueta) {
+        String detalle = exacto == null
+                ? colisiones + " posibles colisiones (incluye falsos positivos del filtro)"
+                : colisiones + " colisiones, " + falsosPositivos + " falsos positivos del filtro en "
+                        + comprobacionesExactas + " comprobaciones exactas";
+        System.out.println("Identificadores de " + etiqueta + ": " + aceptados + " únicos, " + detalle
+                + ", " + filtro.getBytes() + " bytes de filtro.");
+    }
+
+    /**
+     * Busca identificadores repetidos en un conjunto importado.
+     *
+     * <p>Primero recorre los identificadores con un filtro de Bloom y guarda solo los
+     * que podrían estar repetidos; después cuenta de forma exacta cuántas veces aparece
+     * cada candidato. La memoria depende del número de candidatos, no del total.</p>
+     *
+     * @param ids Identificadores importados
+     * @return Identificadores que aparecen más de una vez
+     */
+    public static List<String> buscarDuplicados(String[] ids) {
+        List<String> duplicados = new ArrayList<>();
+        if (ids.length == 0) {
+            return duplicados;
+        }
+
+        BloomFilter filtro = new BloomFilter(ids.length, TASA_FALSOS_POSITIVOS);
+        Map<String, Integer> candidatos = new HashMap<>();
+        for (String id : ids) {
+            if (!filtro.put(id)) {
+                candidatos.put(id, 0);
+            }
+        }
+        if (candidatos.isEmpty()) {
+            return duplicados;
+        }
+
+        for (String id : ids) {
+            candidatos.computeIfPresent(id, (k, n) -> n + 1);
+        }
+        for (Map.Entry<String, Integer> candidato : candidatos.entrySet()) {
+            if (candidato.getValue() > 1) {
+                duplicados.add(candidato.getKey());
+            }
+        }
+        return duplicados;
+    }
+}
@@ -0,0 +1,422 @@
+package es.cosmos;
+
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NodeList;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Instantánea del mundo de Cosmos en memoria.
+ * Contiene los datos de tripulantes y naves leídos de los archivos XML y permite
+ * guardarlos en un archivo binario para restaurarlos en el arranque sin volver a
+ * analizar los XML.
+ *
+ * <p>El archivo incluye la versión de esquema y la fecha y tamaño de los XML de
+ * origen; si alguno no coincide, la instantánea se considera obsoleta.</p>
+ *
+ * @author Cosmos Team
+ * @version 1.0
+ * @since 2025
+ */
+public class WorldSnapshot {
+    /** Identificador del formato de archivo ("CSNP") */
+    private static final int MAGIC = 0x43534E50;
+
+    /** Versión del formato binario del snapshot */
+    private static final int FORMAT_VERSION = 1;
+
+    /** Tamaño del buffer de lectura y escritura */
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    /** Edad que se guarda para los tripulantes sin edad conocida */
+    public static final int SIN_EDAD = -1;
+
+    private static final String SQL_IMPORTAR_TRIPULANTE = "INSERT INTO tripulantes "
+            + "(codigo, nombre, graduacion, edad, faccion, nave) VALUES (?, ?, ?, ?, ?, ?)";
+
+    // --- Tripulantes ---
+    private final String[] crewIds;
+    private final String[] crewNombres;
+    private final String[] crewGraduaciones;
+    private final int[] crewEdades;
+
+    // --- Naves ---
+    private final String[] naveIds;
+    private final String[] naveNombres;
+    private final String[] naveFacciones;
+
+    /** Indica si la instantánea se ha restaurado del archivo binario y no de los XML */
+    private boolean restaurada;
+
+    /**
+     * Constructor privado; usar {@link #loadFromXml} o {@link #read}.
+     */
+    private WorldSnapshot(String[] crewIds, String[] crewNombres, String[] crewGraduaciones, int[] crewEdades,
+                          String[] naveIds, String[] naveNombres, String[] naveFacciones) {
+        this.crewIds = crewIds;
+        this.crewNombres = crewNombres;
+        this.crewGraduaciones = crewGraduaciones;
+        this.crewEdades = crewEdades;
+        this.naveIds = naveIds;
+        this.naveNombres = naveNombres;
+        this.naveFacciones = naveFacciones;
+    }
+
+    /**
+     * Obtiene el número de tripulantes de la instantánea.
+     *
+     * @return Número de tripulantes
+     */
+    public int getNumeroTripulantes() {
+        return crewIds.length;
+    }
+
+    /**
+     * Obtiene el número de naves de la instantánea.
+     *
+     * @return Número de naves
+     */
+    public int getNumeroNaves() {
+        return naveIds.length;
+    }
+
+    /**
+     * Indica si la instantánea se ha restaurado del archivo binario. Si es false se ha
+     * regenerado a partir de los XML, que pueden haber cambiado.
+     *
+     * @return true si se ha restaurado del snapshot
+     */
+    public boolean isRestaurada() {
+        return restaurada;
+    }
+
+    /**
+     * Importa los tripulantes a la tabla 'tripulantes' en una única transacción.
+     *
+     * <p>Cada tripulante se guarda con su id del XML como código, su edad y una nave
+     * asignada por turnos entre las naves de la instantánea, cuya facción hereda; así
+     * los agregados por facción y por nave tienen datos.</p>
+     *
+     * <p>Los códigos que ya están en la base de datos, o que se repiten en la propia
+     * importación, se omiten y se cuentan como colisiones, por lo que importar dos veces
+     * no duplica tripulantes. Un {@link UniqueIdGuard} con los códigos existentes filtra
+     * los nuevos, y solo los que el filtro no descarta se consultan en la base de datos.</p>
+     *
+     * @param dbManager Gestor de base de datos inicializado
+     * @return Número de tripulantes insertados
+     * @throws SQLException Si ocurre un error al insertar
+     */
+    public int importarTripulantes(DatabaseManager dbManager) throws SQLException {
+        int existentes = dbManager.countTripulantesImportados();
+        return dbManager.inTransaction(connection -> {
+            int insertados = 0;
+            try (PreparedStatement pstmt = connection.prepareStatement(SQL_IMPORTAR_TRIPULANTE);
+                 PreparedStatement existe = connection.prepareStatement(
+                         "SELECT 1 FROM tripulantes WHERE codigo = ?")) {
+                UniqueIdGuard guard = new UniqueIdGuard(Math.max(1, existentes + crewIds.length),
+                        UniqueIdGuard.TASA_FALSOS_POSITIVOS, codigo -> {
+                            existe.setString(1, codigo);
+                            try (ResultSet rs = existe.executeQuery()) {
+                                return rs.next();
+                            }
+                        });
+                try (Statement stmt = connection.createStatement();
+                     ResultSet rs = stmt.executeQuery("SELECT codigo FROM tripulantes WHERE codigo IS NOT NULL")) {
+                    while (rs.next()) {
+                        guard.registrarExistente(rs.getString(1));
+                    }
+                }
+
+                for (int i = 0; i < crewIds.length; i++) {
+                    if (!guard.tryAdd(crewIds[i])) {
+                        continue;
+                    }
+                    int nave = naveIds.length == 0 ? -1 : i % naveIds.length;
+                    pstmt.setString(1, crewIds[i]);
+                    pstmt.setString(2, crewNombres[i]);
+                    pstmt.setString(3, crewGraduaciones[i]);
+                    pstmt.setObject(4, crewEdades[i] == SIN_EDAD ? null : crewEdades[i], Types.INTEGER);
+                    pstmt.setString(5, nave < 0 ? null : naveFacciones[nave]);
+                    pstmt.setString(6, nave < 0 ? null : naveIds[nave]);
+                    insertados += pstmt.executeUpdate();
+                }
+                guard.mostrarEstadisticas("tripulantes importados");
+            }
+            return insertados;
+        });
+    }
+
+    /**
+     * Obtiene las naves agrupadas por facción, en el orden en que aparecen.
+     *
+     * @return Pares {id, nombre} de las naves agrupados por facción
+     */
+    public Map<String, List<String[]>> getNavesPorFaccion() {
+        Map<String, List<String[]>> resultado = new LinkedHashMap<>();
+        for (int i = 0; i < naveIds.length; i++) {
+            resultado.computeIfAbsent(naveFacciones[i], k -> new ArrayList<>())
+                    .add(new String[]{naveIds[i], naveNombres[i]});
+        }
+        return resultado;
+    }
+
+    /**
+     * Carga restaurando la instantánea si está al día o, en caso contrario,
+     * analizando los XML y guardando una instantánea nueva para el siguiente arranque.
+     *
+     * @param snapshotPath Ruta del archivo snapshot
+     * @param crewPath Ruta del archivo crew
+     * @param starshipPath Ruta del archivo starship
+     * @return Instantánea del mundo
+     * @throws Exception Si no se pueden leer los XML de origen
+     */
+    public static WorldSnapshot restoreOrBuild(String snapshotPath, String crewPath, String starshipPath) throws Exception {
+        long huella = huellaOrigen(crewPath, starshipPath);
+        Path path = Paths.get(snapshotPath);
+
+        if (Files.exists(path)) {
+            try {
+                WorldSnapshot snapshot = read(path, huella);
+                if (snapshot != null) {
+                    snapshot.restaurada = true;
+                    System.out.println("Mundo restaurado desde el snapshot: " + path.toAbsolutePath());
+                    return snapshot;
+                }
+                System.out.println("Snapshot obsoleto, se regenera desde los XML.");
+            } catch (IOException e) {
+                System.err.println("No se pudo leer el snapshot, se regenera desde los XML: " + e.getMessage());
+            }
+        }
+
+        WorldSnapshot snapshot = loadFromXml(crewPath, starshipPath);
+        try {
+            snapshot.write(path, huella);
+            System.out.println("Snapshot guardado en: " + path.toAbsolutePath());
+        } catch (IOException e) {
+            // El snapshot es solo una optimización; el arranque continúa sin él
+            System.err.println("No se pudo guardar el snapshot: " + e.getMessage());
+        }
+        return snapshot;
+    }
+
+    /**
+     * Crea la instantánea analizando los archivos XML de tripulantes y naves.
+     * Un archivo inexistente se trata como un conjunto vacío, y un tripulante sin
+     * elemento edad, o con él vacío, queda con {@link #SIN_EDAD}.
+     *
+     * @param crewPath Ruta del archivo crew
+     * @param starshipPath Ruta del archivo starship
+     * @return Instantánea con los datos de los XML
+     * @throws Exception Si algún archivo existe pero no se puede analizar
+     */
+    public static WorldSnapshot loadFromXml(String crewPath, String starshipPath) throws Exception {
+        NodeList crew = leerElementos(crewPath, "crewmember");
+        int numCrew = crew == null ? 0 : crew.getLength();
+        String[] crewIds = new String[numCrew];
+        String[] crewNombres = new String[numCrew];
+        String[] crewGraduaciones = new String[numCrew];
+        int[] crewEdades = new int[numCrew];
+        for (int i = 0; i < numCrew; i++) {
+            Element e = (Element) crew.item(i);
+            crewIds[i] = texto(e, "id");
+            crewNombres[i] = texto(e, "nombre");
+            crewGraduaciones[i] = texto(e, "graduacion");
+            String edad = textoOpcional(e, "edad");
+            crewEdades[i] = edad == null || edad.isBlank() ? SIN_EDAD : Integer.parseInt(edad.trim());
+        }
+
+        NodeList naves = leerElementos(starshipPath, "starship");
+        int numNaves = naves == null ? 0 : naves.getLength();
+        String[] naveIds = new String[numNaves];
+        String[] naveNombres = new String[numNaves];
+        String[] naveFacciones = new String[numNaves];
+        for (int i = 0; i < numNaves; i++) {
+            Element e = (Element) naves.item(i);
+            naveIds[i] = texto(e, "id");
+            naveNombres[i] = texto(e, "nombre");
+            naveFacciones[i] = texto(e, "faccion");
+        }
+
+        informarDuplicados(crewIds, "tripulantes", crewPath);
+        informarDuplicados(naveIds, "naves", starshipPath);
+
+        return new WorldSnapshot(crewIds, crewNombres, crewGraduaciones, crewEdades,
+                naveIds, naveNombres, naveFacciones);
+    }
+
+    /**
+     * Comprueba si hay identificadores repetidos en los datos importados y los
+     * muestra por consola. Los registros repetidos se conservan.
+     *
+     * @param ids Identificadores importados
+     * @param tipo Tipo de registro, para el mensaje
+     * @param path Archivo de origen, para el mensaje
+     */
+    private static void informarDuplicados(String[] ids, String tipo, String path) {
+        List<String> duplicados = UniqueIdGuard.buscarDuplicados(ids);
+        if (!duplicados.isEmpty()) {
+            System.err.println("Aviso: " + duplicados.size() + " identificadores de " + tipo
+                    + " repetidos en " + path + ": " + duplicados);
+        }
+    }
+
+    /**
+     * Guarda la instantánea en un archivo binario.
+     * Se escribe primero a un archivo temporal y se renombra para no dejar
+     * nunca un snapshot a medias.
+     *
+     * @param path Ruta del archivo snapshot
+     * @param huella Huella de los XML de origen
+     * @throws IOException Si ocurre un error al escribir el archivo
+     */
+    public void write(Path path, long huella) throws IOException {
+        Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(tmp), BUFFER_SIZE))) {
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            out.writeInt(DatabaseManager.SCHEMA_VERSION);
+            out.writeLong(huella);
+
+            out.writeInt(crewIds.length);
+            for (int i = 0; i < crewIds.length; i++) {
+                out.writeUTF(crewIds[i]);
+                out.writeUTF(crewNombres[i]);
+                out.writeUTF(crewGraduaciones[i]);
+                out.writeInt(crewEdades[i]);
+            }
+
+            out.writeInt(naveIds.length);
+            for (int i = 0; i < naveIds.length; i++) {
+                out.writeUTF(naveIds[i]);
+                out.writeUTF(naveNombres[i]);
+                out.writeUTF(naveFacciones[i]);
+            }
+        }
+        Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Lee una instantánea de un archivo binario.
+     *
+     * @param path Ruta del archivo snapshot
+     * @param huella Huella esperada de los XML de origen
+     * @return Instantánea restaurada, o null si es de otra versión o está obsoleta
+     * @throws IOException Si el archivo no se puede leer o está dañado
+     */
+    public static WorldSnapshot read(Path path, long huella) throws IOException {
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(Files.newInputStream(path), BUFFER_SIZE))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("El archivo no es un snapshot de Cosmos: " + path);
+            }
+            if (in.readInt() != FORMAT_VERSION
+                    || in.readInt() != DatabaseManager.SCHEMA_VERSION
+                    || in.readLong() != huella) {
+                return null;
+            }
+
+            int numCrew = in.readInt();
+            String[] crewIds = new String[numCrew];
+            String[] crewNombres = new String[numCrew];
+            String[] crewGraduaciones = new String[numCrew];
+            int[] crewEdades = new int[numCrew];
+            for (int i = 0; i < numCrew; i++) {
+                crewIds[i] = in.readUTF();
+                crewNombres[i] = in.readUTF();
+                crewGraduaciones[i] = in.readUTF();
+                crewEdades[i] = in.readInt();
+            }
+
+            int numNaves = in.readInt();
+            String[] naveIds = new String[numNaves];
+            String[] naveNombres = new String[numNaves];
+            String[] naveFacciones = new String[numNaves];
+            for (int i = 0; i < numNaves; i++) {
+                naveIds[i] = in.readUTF();
+                naveNombres[i] = in.readUTF();
+                naveFacciones[i] = in.readUTF();
+            }
+
+            return new WorldSnapshot(crewIds, crewNombres, crewGraduaciones, crewEdades,
+                    naveIds, naveNombres, naveFacciones);
+        }
+    }
+
+    /**
+     * Calcula una huella de los XML de origen a partir de su fecha y tamaño,
+     * sin necesidad de leer su contenido.
+     *
+     * @param paths Rutas de los archivos de origen
+     * @return Huella de los archivos
+     */
+    static long huellaOrigen(String... paths) {
+        long huella = 17;
+        for (String p : paths) {
+            File f = new File(p);
+            huella = 31 * huella + f.lastModified();
+            huella = 31 * huella + f.length();
+        }
+        return huella;
+    }
+
+    /**
+     * Lee los elementos con la etiqueta indicada de un archivo XML.
+     *
+     * @param path Ruta del archivo
+     * @param etiqueta Etiqueta de los elementos
+     * @return Lista de elementos, o null si el archivo no existe
+     * @throws Exception Si el archivo no se puede analizar
+     */
+    private static NodeList leerElementos(String path, String etiqueta) throws Exception {
+        File file = new File(path);
+        if (!file.exists()) {
+            return null;
+        }
+        Document doc = DocumentBuilderFactory.newInstance().newDocumentBuilder().parse(file);
+        return doc.getElementsByTagName(etiqueta);
+    }
+
+    /**
+     * Método auxiliar para obtener el texto de un elemento hijo.
+     *
+     * @param padre Elemento padre
+     * @param etiqueta Etiqueta del elemento hijo
+     * @return Texto del elemento hijo
+     */
+    private static String texto(Element padre, String etiqueta) {
+        return padre.getElementsByTagName(etiqueta).item(0).getTextContent();
+    }
+
+    /**
+     * Método auxiliar para obtener el texto de un elemento hijo que puede faltar.
+     *
+     * @param padre Elemento padre
+     * @param etiqueta Etiqueta del elemento hijo
+     * @return Texto del elemento hijo, o null si no existe
+     */
+    private static String textoOpcional(Element padre, String etiqueta) {
+        NodeList hijos = padre.getElementsByTagName(etiqueta);
+        return hijos.getLength() == 0 ? null : hijos.item(0).getTextContent();
+    }
+}